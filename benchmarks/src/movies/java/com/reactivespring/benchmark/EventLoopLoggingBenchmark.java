@@ -0,0 +1,121 @@
+package com.reactivespring.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+//Time an event-loop thread spends in the per-request log.warn MoviesController makes while serving fallback reviews,
+//with a synchronous console appender against the async one from the services' logback-spring.xml.
+//Each JMH thread stands in for a Netty event loop; the console is a sink taking sinkLatencyMicros per write,
+//like a terminal or a log shipper pipe that has fallen behind
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class EventLoopLoggingBenchmark {
+
+    public enum AppenderMode {SYNC, ASYNC}
+
+    @Param({"SYNC", "ASYNC"})
+    private AppenderMode appender;
+
+    @Param({"0", "50"})
+    private long sinkLatencyMicros;
+
+    private LoggerContext loggerContext;
+    private Logger log;
+    private final Exception reviewsFailure = new TimeoutException("Did not observe any item or terminal signal within 500ms");
+
+    @Setup
+    public void setUp() {
+        //a context of its own, so the WARN logback.xml of the benchmark classpath does not apply
+        loggerContext = new LoggerContext();
+
+        var encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        var console = new OutputStreamAppender<ILoggingEvent>();
+        console.setContext(loggerContext);
+        console.setName("CONSOLE");
+        console.setEncoder(encoder);
+        console.setOutputStream(new SlowOutputStream(TimeUnit.MICROSECONDS.toNanos(sinkLatencyMicros)));
+        console.start();
+
+        log = loggerContext.getLogger("com.reactivespring.controller.MoviesController");
+        log.setLevel(Level.INFO);
+        log.setAdditive(false);
+        log.addAppender(appender == AppenderMode.ASYNC ? async(console) : console);
+    }
+
+    //same settings as logback-spring.xml in the services
+    private Appender<ILoggingEvent> async(Appender<ILoggingEvent> console) {
+        var async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setName("ASYNC_CONSOLE");
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(console);
+        async.start();
+        return async;
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public void retrieveMovieByIdFallbackLine() {
+        log.warn("Serving movie {} with fallback reviews: {}", "abc", reviewsFailure.toString());
+    }
+
+    private static class SlowOutputStream extends OutputStream {
+
+        private final long writeNanos;
+
+        SlowOutputStream(long writeNanos) {
+            this.writeNanos = writeNanos;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (writeNanos > 0) {
+                LockSupport.parkNanos(writeNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.reactivespring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Movie aggregate (de)serialization with the same ObjectMapper settings Spring Boot gives the codecs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieJsonBenchmark {
+
+    @Param({"2", "100"})
+    private int reviewCount;
+
+    private ObjectMapper objectMapper;
+    private Movie movie;
+    private byte[] movieJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        var movieInfo = new MovieInfo("abc", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+        var reviews = IntStream.range(0, reviewCount)
+                .mapToObj(i -> new Review("review" + i, "abc", "Awesome Movie " + i, (double) (i % 10)))
+                .collect(Collectors.toList());
+        movie = new Movie(movieInfo, reviews);
+        movieJson = objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public Movie deserialize() throws Exception {
+        return objectMapper.readValue(movieJson, Movie.class);
+    }
+}
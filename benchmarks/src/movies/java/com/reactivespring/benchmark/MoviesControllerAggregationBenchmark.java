@@ -0,0 +1,110 @@
+package com.reactivespring.benchmark;
+
+import com.reactivespring.MoviesServiceApplication;
+import com.reactivespring.config.AggregationMode;
+import com.reactivespring.controller.MoviesController;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//MoviesController.retrieveMovieById end to end through the real WebClients, with movies-info-service
+//and movies-review-service replaced by an in-process Reactor Netty stub answering canned JSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MoviesControllerAggregationBenchmark {
+
+    //kept under the default downstream bulkhead (maxConcurrentCalls: 50)
+    private static final int CONCURRENT_REQUESTS = 32;
+
+    private static final String MOVIE_INFO_JSON = "{\"movieInfoId\":\"abc\",\"name\":\"Batman Begins\",\"year\":2005," +
+            "\"cast\":[\"Christian Bale\",\"Michael Cane\"],\"release_date\":\"2005-06-15\"}";
+
+    private static final String REVIEWS_JSON = "[{\"reviewId\":\"1\",\"movieInfoId\":\"abc\",\"comment\":\"Awesome Movie\",\"rating\":9.0}," +
+            "{\"reviewId\":\"2\",\"movieInfoId\":\"abc\",\"comment\":\"Excellent Movie\",\"rating\":8.0}]";
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    private AggregationMode mode;
+
+    //simulated latency of each downstream call
+    @Param({"0", "5"})
+    private long downstreamDelayMs;
+
+    private DisposableServer downstreamStub;
+    private ConfigurableApplicationContext context;
+    private MoviesController moviesController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var delay = Duration.ofMillis(downstreamDelayMs);
+        downstreamStub = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> {
+                    var body = request.uri().startsWith("/v1/movieInfo/") ? MOVIE_INFO_JSON : REVIEWS_JSON;
+                    var bodyMono = delay.isZero() ? Mono.just(body) : Mono.delay(delay).thenReturn(body);
+                    return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                            .sendString(bodyMono);
+                })
+                .bindNow();
+
+        var downstreamUrl = "http://localhost:" + downstreamStub.port();
+        //passed as arguments, since application.yml would win over default properties
+        context = new SpringApplicationBuilder(MoviesServiceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--restClient.movieInfoUrl=" + downstreamUrl + "/v1/movieInfo",
+                        "--restClient.reviewsUrl=" + downstreamUrl + "/v1/reviews",
+                        //every call should reach the stub, otherwise this only measures the cache
+                        "--restClient.movieInfoCache.enabled=false",
+                        "--aggregation.retrieveMovieById=" + mode,
+                        "--spring.zipkin.enabled=false",
+                        "--logging.level.root=WARN");
+        moviesController = context.getBean(MoviesController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        downstreamStub.disposeNow();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> retrieveMovieById() {
+        return moviesController.retrieveMovieById("abc").block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public List<?> retrieveMovieByIdConcurrently() {
+        return Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> moviesController.retrieveMovieById("abc"), CONCURRENT_REQUESTS)
+                .collectList()
+                .block();
+    }
+}
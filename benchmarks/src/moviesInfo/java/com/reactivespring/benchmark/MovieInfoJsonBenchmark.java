@@ -0,0 +1,64 @@
+package com.reactivespring.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reactivespring.domain.MovieInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//MovieInfo (de)serialization with the same ObjectMapper settings Spring Boot gives the codecs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieInfoJsonBenchmark {
+
+    //1 is GET /v1/movieInfo/{id}, 100 a page of GET /v1/movieInfo
+    @Param({"1", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<MovieInfo> movieInfoList;
+    private byte[] movieInfoListJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        movieInfoList = IntStream.range(0, size)
+                .mapToObj(i -> new MovieInfo("movieInfo" + i, "Batman Begins " + i,
+                        2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"), (long) i))
+                .collect(Collectors.toList());
+        movieInfoListJson = objectMapper.writeValueAsBytes(movieInfoList);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(movieInfoList);
+    }
+
+    @Benchmark
+    public List<MovieInfo> deserialize() throws Exception {
+        return objectMapper.readValue(movieInfoListJson, new TypeReference<List<MovieInfo>>() {});
+    }
+}
@@ -0,0 +1,106 @@
+package com.reactivespring.benchmark;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.ReviewCustomRepositoryImpl;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Deleting reviews with findById + deleteById, as deleteReviewById used to, vs. the single findAndDelete, under concurrent load.
+//Needs a running Mongo: -PjmhArgs='ReviewDelete -p mongoUri=mongodb://host:27017'; writes to its own database and drops it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReviewDeleteBenchmark {
+
+    private static final int REVIEWS = 2000;
+    private static final int CONCURRENCY = 64;
+
+    @Param("mongodb://localhost:27017")
+    private String mongoUri;
+
+    private MongoClient mongoClient;
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    private ReviewReactiveRepository reviewReactiveRepository;
+    private List<String> reviewIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongoClient = MongoClients.create(mongoUri);
+        reactiveMongoTemplate = new ReactiveMongoTemplate(mongoClient, "reviewDeleteBenchmark");
+        reviewReactiveRepository = new ReactiveMongoRepositoryFactory(reactiveMongoTemplate)
+                .getRepository(ReviewReactiveRepository.class, RepositoryFragments.just(new ReviewCustomRepositoryImpl(reactiveMongoTemplate)));
+    }
+
+    //each invocation deletes a whole batch, so seeding it is not part of the measurement
+    @Setup(Level.Invocation)
+    public void seedReviews() {
+        reviewIds = reviewReactiveRepository.deleteAll()
+                .thenMany(reviewReactiveRepository.saveAll(IntStream.range(0, REVIEWS)
+                        .mapToObj(i -> new Review(null, String.valueOf(i % 100), "Benchmark", (double) (i % 10)))
+                        .collect(Collectors.toList())))
+                .map(Review::getReviewId)
+                .collectList()
+                .block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        reactiveMongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.from(database.drop()))
+                .block();
+        mongoClient.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REVIEWS)
+    public Long findByIdThenDeleteById() {
+        return deleteAll(reviewId -> reviewReactiveRepository.findById(reviewId)
+                .flatMap(review -> reviewReactiveRepository.deleteById(reviewId).thenReturn(review)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REVIEWS)
+    public Long findAndDelete() {
+        return deleteAll(reviewReactiveRepository::findAndDelete);
+    }
+
+    private Long deleteAll(Function<String, Mono<Review>> delete) {
+        var deleted = Flux.fromIterable(reviewIds)
+                .flatMap(delete, CONCURRENCY)
+                .count()
+                .block();
+        if (deleted != REVIEWS) {
+            throw new IllegalStateException("Deleted " + deleted + " of " + REVIEWS + " reviews");
+        }
+        return deleted;
+    }
+}
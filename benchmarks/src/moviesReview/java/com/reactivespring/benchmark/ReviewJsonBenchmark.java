@@ -0,0 +1,59 @@
+package com.reactivespring.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Review (de)serialization with the same ObjectMapper settings Spring Boot gives the codecs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewJsonBenchmark {
+
+    //1 is a single POST /v1/reviews, 100 the reviews of a popular movie
+    @Param({"1", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Review> reviewList;
+    private byte[] reviewListJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reviewList = IntStream.range(0, size)
+                .mapToObj(i -> new Review("review" + i, "movieInfo" + (i % 10), "Awesome Movie " + i, (double) (i % 10), (long) i))
+                .collect(Collectors.toList());
+        reviewListJson = objectMapper.writeValueAsBytes(reviewList);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(reviewList);
+    }
+
+    @Benchmark
+    public List<Review> deserialize() throws Exception {
+        return objectMapper.readValue(reviewListJson, new TypeReference<List<Review>>() {});
+    }
+}
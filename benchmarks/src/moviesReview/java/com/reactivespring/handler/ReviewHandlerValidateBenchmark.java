@@ -0,0 +1,55 @@
+package com.reactivespring.handler;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewDataException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.Validation;
+import java.util.concurrent.TimeUnit;
+
+//ReviewHandler.validate for a valid review and for one that fails both constraints
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewHandlerValidateBenchmark {
+
+    private ReviewHandler reviewHandler;
+    private Review validReview;
+    private Review invalidReview;
+
+    @Setup
+    public void setUp() {
+        reviewHandler = new ReviewHandler(null, null, null);
+        reviewHandler.validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validReview = new Review("abc123", "1", "Awesome Movie", 9.0);
+        invalidReview = new Review("abc123", null, "Awesome Movie", -9.0);
+    }
+
+    @Benchmark
+    public Review validReview() {
+        reviewHandler.validate(validReview);
+        return validReview;
+    }
+
+    @Benchmark
+    public Object invalidReview() {
+        try {
+            reviewHandler.validate(invalidReview);
+            return invalidReview;
+        } catch (ReviewDataException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.learnreactiveprogramming.benchmark;
+
+import com.learnreactiveprogramming.service.FluxAndMonoGeneratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//assembly + subscription cost of the synchronous operator chains; the delayElements based
+//merge examples are left out since they would only measure their timers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FluxAndMonoGeneratorServiceBenchmark {
+
+    private FluxAndMonoGeneratorService fluxAndMonoGeneratorService;
+
+    @Setup
+    public void setUp() {
+        fluxAndMonoGeneratorService = new FluxAndMonoGeneratorService();
+    }
+
+    @Benchmark
+    public List<String> namesFluxUpperCase() {
+        return fluxAndMonoGeneratorService.namesFluxUpperCase().collectList().block();
+    }
+
+    @Benchmark
+    public List<String> filterAndMapNames() {
+        return fluxAndMonoGeneratorService.filterAndMapNames(3).collectList().block();
+    }
+
+    @Benchmark
+    public List<String> transformExample() {
+        return fluxAndMonoGeneratorService.transformExample(3).collectList().block();
+    }
+
+    @Benchmark
+    public List<String> switchIfEmptyExample() {
+        return fluxAndMonoGeneratorService.switchIfEmptyExample().collectList().block();
+    }
+
+    @Benchmark
+    public List<String> charsOfNames() {
+        return fluxAndMonoGeneratorService.charsOfNames(3).collectList().block();
+    }
+
+    @Benchmark
+    public List<String> namesMono_flatMap() {
+        return fluxAndMonoGeneratorService.namesMono_flatMap(5).block();
+    }
+
+    @Benchmark
+    public List<String> concatFluxAndMono() {
+        return fluxAndMonoGeneratorService.concatFluxAndMono().collectList().block();
+    }
+
+    @Benchmark
+    public List<String> zipExample() {
+        return fluxAndMonoGeneratorService.zipExample().collectList().block();
+    }
+
+    @Benchmark
+    public List<String> zipExampleWtuple() {
+        return fluxAndMonoGeneratorService.zipExampleWtuple().collectList().block();
+    }
+}
@@ -0,0 +1,64 @@
+package com.reactivespring.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+//The routes the load test can drive; each request picks one of the seeded movies at random
+public enum Endpoint {
+
+    MOVIE_INFO_BY_ID("GET /v1/movieInfo/{id}") {
+        @Override
+        Mono<Integer> send(HttpClient httpClient, LoadTestTargets targets, String movieInfoId) {
+            return get(httpClient, targets.getMoviesInfoUrl() + "/v1/movieInfo/" + movieInfoId);
+        }
+    },
+    REVIEWS_BY_MOVIE("GET /v1/reviews?movieInfoId={id}") {
+        @Override
+        Mono<Integer> send(HttpClient httpClient, LoadTestTargets targets, String movieInfoId) {
+            return get(httpClient, targets.getReviewsUrl() + "/v1/reviews?movieInfoId=" + movieInfoId);
+        }
+    },
+    MOVIE_BY_ID("GET /v1/movies/{id}") {
+        @Override
+        Mono<Integer> send(HttpClient httpClient, LoadTestTargets targets, String movieInfoId) {
+            return get(httpClient, targets.getMoviesUrl() + "/v1/movies/" + movieInfoId);
+        }
+    },
+    ADD_REVIEW("POST /v1/reviews") {
+        @Override
+        Mono<Integer> send(HttpClient httpClient, LoadTestTargets targets, String movieInfoId) {
+            var review = "{\"movieInfoId\":\"" + movieInfoId + "\",\"comment\":\"Load test review\",\"rating\":"
+                    + ThreadLocalRandom.current().nextInt(11) + "}";
+            return httpClient
+                    .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+                    .post()
+                    .uri(targets.getReviewsUrl() + "/v1/reviews")
+                    .send(ByteBufFlux.fromString(Mono.just(review)))
+                    .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()));
+        }
+    };
+
+    private final String route;
+
+    Endpoint(String route) {
+        this.route = route;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    //completes with the response status once the whole body has been read
+    abstract Mono<Integer> send(HttpClient httpClient, LoadTestTargets targets, String movieInfoId);
+
+    private static Mono<Integer> get(HttpClient httpClient, String uri) {
+        return httpClient
+                .get()
+                .uri(uri)
+                .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.reactivespring.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Latency histogram and outcome counts of one endpoint during one phase
+public class EndpointStats {
+
+    private final Endpoint endpoint;
+    //microseconds, measured from the scheduled send time so a slow service cannot hide queueing (coordinated omission)
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    //status code or exception name -> count
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private volatile long elapsedNanos;
+
+    public EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void recordResponse(int status, long latencyNanos) {
+        latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        if (status < 400) {
+            successes.increment();
+        } else {
+            failures.increment();
+        }
+        outcomes.computeIfAbsent(String.valueOf(status), key -> new LongAdder()).increment();
+    }
+
+    //timeouts and connection errors never produced a response, so they only count as failures
+    void recordError(Throwable error) {
+        failures.increment();
+        outcomes.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    EndpointStats finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        return this;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequests() {
+        return successes.sum() + failures.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public double getErrorRatio() {
+        var requests = getRequests();
+        return requests == 0 ? 0 : (double) failures.sum() / requests;
+    }
+
+    //successful responses per second over the whole phase
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : successes.sum() / (elapsedNanos / 1e9);
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double maxMillis() {
+        return latencyMicros.getMaxValue() / 1000.0;
+    }
+
+    public Map<String, Long> getOutcomes() {
+        var counts = new TreeMap<String, Long>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+}
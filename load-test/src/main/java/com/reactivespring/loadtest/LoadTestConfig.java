@@ -0,0 +1,86 @@
+package com.reactivespring.loadtest;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+//Everything the runner needs, read from loadTest.* system properties (the Gradle task forwards -PloadTest.*)
+@Value
+public class LoadTestConfig {
+
+    //arrivals per second for each endpoint; requests are sent on schedule whether or not earlier ones returned
+    double rate;
+    Duration warmup;
+    Duration duration;
+    List<Endpoint> endpoints;
+    int movies;
+    int reviewsPerMovie;
+    //upper bound on outstanding requests per endpoint, so a stalled service cannot exhaust the client
+    int maxInFlight;
+    Duration requestTimeout;
+    Duration startupTimeout;
+    List<String> serviceJvmArgs;
+    Path reportDir;
+    //optional gates: the run fails when any endpoint goes over them
+    Double maxP99Ms;
+    Double maxErrorRatio;
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Double.parseDouble(property("rate", "50")),
+                parseDuration(property("warmup", "10s")),
+                parseDuration(property("duration", "30s")),
+                Arrays.stream(property("endpoints", "MOVIE_INFO_BY_ID,REVIEWS_BY_MOVIE,MOVIE_BY_ID").split(","))
+                        .map(String::trim)
+                        .map(name -> Endpoint.valueOf(name.toUpperCase(Locale.ROOT)))
+                        .collect(Collectors.toList()),
+                Integer.parseInt(property("movies", "100")),
+                Integer.parseInt(property("reviewsPerMovie", "5")),
+                Integer.parseInt(property("maxInFlight", "512")),
+                parseDuration(property("requestTimeout", "10s")),
+                parseDuration(property("startupTimeout", "3m")),
+                Arrays.stream(property("serviceJvmArgs", "").split(" "))
+                        .filter(arg -> !arg.isBlank())
+                        .collect(Collectors.toList()),
+                Path.of(property("reportDir", "build/reports/load-test")),
+                optionalDouble("maxP99Ms"),
+                optionalDouble("maxErrorRatio"));
+    }
+
+    public static String serviceProperty(String service, String name) {
+        var value = System.getProperty("loadTest." + service + "." + name);
+        if (value == null) {
+            throw new IllegalStateException("loadTest." + service + "." + name + " is not set, run the load test through ./gradlew :load-test:loadTest");
+        }
+        return value;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+
+    private static Double optionalDouble(String name) {
+        var value = System.getProperty("loadTest." + name);
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    //500ms, 30s or 2m, like the services' own duration properties
+    static Duration parseDuration(String value) {
+        var trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+}
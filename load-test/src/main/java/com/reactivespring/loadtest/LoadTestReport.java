@@ -0,0 +1,83 @@
+package com.reactivespring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Throughput and p50/p99/p999 per endpoint, logged as a table and written to <reportDir>/load-test.json
+@Slf4j
+public class LoadTestReport {
+
+    private final LoadTestConfig config;
+    private final List<EndpointStats> endpointStats;
+    private final Instant finishedAt = Instant.now();
+
+    public LoadTestReport(LoadTestConfig config, List<EndpointStats> endpointStats) {
+        this.config = config;
+        this.endpointStats = endpointStats;
+    }
+
+    public void logSummary() {
+        var table = new StringBuilder(String.format("%n%-34s %9s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        endpointStats.forEach(stats -> table.append(String.format("%-34s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                stats.getEndpoint().getRoute(), stats.getRequests(), stats.getFailures(), stats.getThroughput(),
+                stats.percentileMillis(50), stats.percentileMillis(99), stats.percentileMillis(99.9), stats.maxMillis())));
+        log.info("load test at {} req/s per endpoint for {}:{}", config.getRate(), config.getDuration(), table);
+    }
+
+    public Path write() throws IOException {
+        var report = new LinkedHashMap<String, Object>();
+        report.put("finishedAt", finishedAt.toString());
+        report.put("ratePerEndpoint", config.getRate());
+        report.put("durationSeconds", config.getDuration().toSeconds());
+        report.put("movies", config.getMovies());
+        report.put("reviewsPerMovie", config.getReviewsPerMovie());
+        report.put("endpoints", endpointStats.stream().map(this::toMap).collect(Collectors.toList()));
+
+        var reportFile = config.getReportDir().resolve("load-test.json");
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportFile.toFile(), report);
+        return reportFile;
+    }
+
+    //empty when the run stayed within the configured maxP99Ms / maxErrorRatio
+    public List<String> gateViolations() {
+        var violations = new ArrayList<String>();
+        endpointStats.forEach(stats -> {
+            var route = stats.getEndpoint().getRoute();
+            if (config.getMaxP99Ms() != null && stats.percentileMillis(99) > config.getMaxP99Ms()) {
+                violations.add(String.format("%s p99 %.2f ms is over %.2f ms", route, stats.percentileMillis(99), config.getMaxP99Ms()));
+            }
+            if (config.getMaxErrorRatio() != null && stats.getErrorRatio() > config.getMaxErrorRatio()) {
+                violations.add(String.format("%s error ratio %.4f is over %.4f, outcomes: %s", route, stats.getErrorRatio(), config.getMaxErrorRatio(), stats.getOutcomes()));
+            }
+        });
+        return violations;
+    }
+
+    private Map<String, Object> toMap(EndpointStats stats) {
+        var endpoint = new LinkedHashMap<String, Object>();
+        endpoint.put("endpoint", stats.getEndpoint().name());
+        endpoint.put("route", stats.getEndpoint().getRoute());
+        endpoint.put("requests", stats.getRequests());
+        endpoint.put("errors", stats.getFailures());
+        endpoint.put("throughput", stats.getThroughput());
+        endpoint.put("p50Ms", stats.percentileMillis(50));
+        endpoint.put("p99Ms", stats.percentileMillis(99));
+        endpoint.put("p999Ms", stats.percentileMillis(99.9));
+        endpoint.put("maxMs", stats.maxMillis());
+        endpoint.put("outcomes", stats.getOutcomes());
+        return endpoint;
+    }
+}
@@ -0,0 +1,165 @@
+package com.reactivespring.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Starts movies-info-service and movies-review-service on embedded Mongo and movies-service pointed at them,
+//seeds them through the bulk endpoints, then drives open-model load against the configured endpoints
+@Slf4j
+public class LoadTestRunner {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Scheduler tickScheduler = Schedulers.newSingle("load-test-ticks");
+
+    public LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        var connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(config.getMaxInFlight() * config.getEndpoints().size())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = LoadTestConfig.fromSystemProperties();
+        var report = new LoadTestRunner(config).run();
+        var violations = report.gateViolations();
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> log.error("load test gate failed: {}", violation));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    public LoadTestReport run() throws Exception {
+        Files.createDirectories(config.getReportDir());
+        var services = new ArrayList<ServiceProcess>();
+        try {
+            //port 0 has the embedded Mongo pick a free port, instead of the 27017 of the local profile
+            var mongoArgs = List.of("--spring.data.mongodb.port=0");
+            var moviesInfo = ServiceProcess.start("moviesInfo", config.getServiceJvmArgs(), mongoArgs, config.getReportDir());
+            services.add(moviesInfo);
+            var moviesReview = ServiceProcess.start("moviesReview", config.getServiceJvmArgs(), mongoArgs, config.getReportDir());
+            services.add(moviesReview);
+            var movies = ServiceProcess.start("movies", config.getServiceJvmArgs(), List.of(
+                    "--restClient.movieInfoUrl=" + moviesInfo.getBaseUrl() + "/v1/movieInfo",
+                    "--restClient.reviewsUrl=" + moviesReview.getBaseUrl() + "/v1/reviews"), config.getReportDir());
+            services.add(movies);
+            for (var service : services) {
+                service.awaitReady(httpClient, config.getStartupTimeout());
+            }
+
+            var targets = new LoadTestTargets(moviesInfo.getBaseUrl(), moviesReview.getBaseUrl(), movies.getBaseUrl());
+            var movieInfoIds = seed(targets);
+
+            if (!config.getWarmup().isZero()) {
+                log.info("warming up for {}", config.getWarmup());
+                runPhase(targets, movieInfoIds, config.getWarmup());
+            }
+            log.info("measuring for {} at {} req/s per endpoint", config.getDuration(), config.getRate());
+            var report = new LoadTestReport(config, runPhase(targets, movieInfoIds, config.getDuration()));
+            report.logSummary();
+            log.info("report written to {}", report.write());
+            return report;
+        } finally {
+            for (var service : services) {
+                service.close();
+            }
+            tickScheduler.dispose();
+        }
+    }
+
+    private List<EndpointStats> runPhase(LoadTestTargets targets, List<String> movieInfoIds, Duration duration) {
+        var load = new OpenModelLoad(config.getRate(), config.getMaxInFlight(), config.getRequestTimeout(), tickScheduler);
+        return Flux.fromIterable(config.getEndpoints())
+                .flatMapSequential(endpoint -> load.run(endpoint, duration,
+                        () -> endpoint.send(httpClient, targets, movieInfoIds.get(ThreadLocalRandom.current().nextInt(movieInfoIds.size())))))
+                .collectList()
+                .block();
+    }
+
+    private List<String> seed(LoadTestTargets targets) {
+        var movieInfos = IntStream.range(0, config.getMovies())
+                .mapToObj(i -> toJson(Map.of(
+                        "title", "Load Test Movie " + i,
+                        "year", 2000 + i % 20,
+                        "cast", List.of("Actor " + i, "Actress " + i),
+                        "release_date", "2005-06-15")))
+                .collect(Collectors.joining("\n"));
+        var movieInfoIds = postNdjson(targets.getMoviesInfoUrl() + "/v1/movieInfo/bulk", movieInfos).stream()
+                .filter(result -> "CREATED".equals(result.path("status").asText()))
+                .map(result -> result.get("movieInfoId").asText())
+                .collect(Collectors.toList());
+        if (movieInfoIds.isEmpty()) {
+            throw new IllegalStateException("No movie info could be seeded, see moviesInfo.log");
+        }
+
+        var reviews = movieInfoIds.stream()
+                .flatMap(movieInfoId -> IntStream.range(0, config.getReviewsPerMovie())
+                        .mapToObj(i -> toJson(Map.of(
+                                "movieInfoId", movieInfoId,
+                                "comment", "Seeded review " + i,
+                                "rating", (double) (i % 11)))))
+                .collect(Collectors.joining("\n"));
+        var createdReviews = reviews.isEmpty() ? 0 : postNdjson(targets.getReviewsUrl() + "/v1/reviews/bulk", reviews).stream()
+                .filter(result -> "CREATED".equals(result.path("status").asText()))
+                .count();
+        log.info("seeded {} movie infos and {} reviews", movieInfoIds.size(), createdReviews);
+        return movieInfoIds;
+    }
+
+    private List<JsonNode> postNdjson(String uri, String body) {
+        var response = httpClient
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, NDJSON).set(HttpHeaderNames.ACCEPT, NDJSON))
+                .post()
+                .uri(uri)
+                .send(ByteBufFlux.fromString(Mono.just(body)))
+                .responseSingle((res, content) -> content.asString())
+                .defaultIfEmpty("")
+                .block(config.getStartupTimeout());
+        return response.lines()
+                .filter(line -> !line.isBlank())
+                .map(this::readTree)
+                .collect(Collectors.toList());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
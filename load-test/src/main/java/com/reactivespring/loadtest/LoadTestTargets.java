@@ -0,0 +1,11 @@
+package com.reactivespring.loadtest;
+
+import lombok.Value;
+
+//Base URLs of the running services
+@Value
+public class LoadTestTargets {
+    String moviesInfoUrl;
+    String reviewsUrl;
+    String moviesUrl;
+}
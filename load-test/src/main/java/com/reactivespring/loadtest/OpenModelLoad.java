@@ -0,0 +1,62 @@
+package com.reactivespring.loadtest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+//Open workload model: requests are released at a fixed arrival rate no matter how many are still in flight,
+//which is how independent users behave, unlike a closed loop that waits for each response before sending the next
+public class OpenModelLoad {
+
+    private static final Duration TICK = Duration.ofMillis(1);
+
+    private final double ratePerSecond;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+    private final Scheduler tickScheduler;
+
+    public OpenModelLoad(double ratePerSecond, int maxInFlight, Duration requestTimeout, Scheduler tickScheduler) {
+        this.ratePerSecond = ratePerSecond;
+        this.maxInFlight = maxInFlight;
+        this.requestTimeout = requestTimeout;
+        this.tickScheduler = tickScheduler;
+    }
+
+    public Mono<EndpointStats> run(Endpoint endpoint, Duration duration, Supplier<Mono<Integer>> request) {
+        var total = (long) (ratePerSecond * duration.toNanos() / 1e9);
+        var intervalNanos = 1e9 / ratePerSecond;
+        var stats = new EndpointStats(endpoint);
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            var scheduled = new long[1];
+            return Flux.interval(TICK, tickScheduler)
+                    //a late tick is harmless: the next one releases every arrival that has come due since
+                    .onBackpressureDrop()
+                    .concatMapIterable(tick -> {
+                        var due = Math.min(total, (long) ((System.nanoTime() - start) / intervalNanos) + 1);
+                        List<Long> intendedStarts = new ArrayList<>();
+                        for (var i = scheduled[0]; i < due; i++) {
+                            intendedStarts.add(start + (long) (i * intervalNanos));
+                        }
+                        scheduled[0] = due;
+                        return intendedStarts;
+                    })
+                    .take(total)
+                    //arrivals beyond maxInFlight wait here, and that wait shows up in their latency
+                    .onBackpressureBuffer()
+                    .flatMap(intendedStart -> request.get()
+                            .timeout(requestTimeout)
+                            .doOnNext(status -> stats.recordResponse(status, System.nanoTime() - intendedStart))
+                            .onErrorResume(error -> {
+                                stats.recordError(error);
+                                return Mono.empty();
+                            }), maxInFlight)
+                    .then(Mono.fromCallable(() -> stats.finish(System.nanoTime() - start)));
+        });
+    }
+}
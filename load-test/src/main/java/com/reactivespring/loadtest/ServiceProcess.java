@@ -0,0 +1,97 @@
+package com.reactivespring.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//One service started in a child JVM on a free port, with its output going to <reportDir>/<name>.log
+@Slf4j
+public class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final Path logFile;
+
+    private ServiceProcess(String name, int port, Process process, Path logFile) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.logFile = logFile;
+    }
+
+    public static ServiceProcess start(String name, List<String> jvmArgs, List<String> args, Path logDir) throws IOException {
+        var port = freePort();
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add(LoadTestConfig.serviceProperty(name, "mainClass"));
+        command.add("--server.port=" + port);
+        //no Zipkin runs next to the load test: spans are still created and propagated, just not reported
+        command.add("--spring.zipkin.enabled=false");
+        command.addAll(args);
+
+        var logFile = logDir.resolve(name + ".log");
+        var processBuilder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile());
+        //through the environment rather than -cp, which can get past the command line limit on Windows
+        processBuilder.environment().put("CLASSPATH", LoadTestConfig.serviceProperty(name, "classpath"));
+        log.info("starting {} on port {}, logging to {}", name, port, logFile);
+        return new ServiceProcess(name, port, processBuilder.start(), logFile);
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    //any HTTP answer will do: Spring only opens the port once the context, embedded Mongo included, is up
+    public void awaitReady(HttpClient httpClient, Duration timeout) throws InterruptedException {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + logFile);
+            }
+            try {
+                httpClient.get()
+                        .uri(getBaseUrl() + "/")
+                        .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()))
+                        .block(Duration.ofSeconds(2));
+                log.info("{} is up at {}", name, getBaseUrl());
+                return;
+            } catch (RuntimeException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException(name + " did not start within " + timeout + ", see " + logFile);
+    }
+
+    @Override
+    public void close() {
+        //a graceful stop lets Spring shut the embedded Mongo down with it
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                log.warn("{} did not stop in time, killing it", name);
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException e) {
+            //still make sure it does not outlive the load test, then let the caller see the interrupt
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.reactivespring.config;
+
+import com.reactivespring.domain.MovieInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+//Creates the indexes declared on MovieInfo (the title text index) before the server
+//starts taking requests, since Spring Data no longer auto-creates them
+@Slf4j
+@Component
+public class MovieInfoIndexInitializer implements SmartInitializingSingleton {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public MovieInfoIndexInitializer(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var indexResolver = IndexResolver.create(reactiveMongoTemplate.getConverter().getMappingContext());
+        var indexOps = reactiveMongoTemplate.indexOps(MovieInfo.class);
+        Flux.fromIterable(indexResolver.resolveIndexFor(MovieInfo.class))
+                .concatMap(indexOps::ensureIndex)
+                .doOnNext(indexName -> log.info("ensured index {} on {}", indexName, reactiveMongoTemplate.getCollectionName(MovieInfo.class)))
+                .blockLast();
+    }
+}
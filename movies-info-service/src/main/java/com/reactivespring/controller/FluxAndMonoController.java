@@ -1,5 +1,6 @@
 package com.reactivespring.controller;
 
+import com.reactivespring.tracing.SignalTrace;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,18 +16,18 @@ public class FluxAndMonoController {
     @GetMapping("/flux")
     public Flux<Integer> flux() {
         return Flux.just(2,5,8)
-                .log();
+                .transform(SignalTrace.flux("flux"));
     }
 
     @GetMapping("/mono")
     public Mono<String> helloWorldMono()  {
         return Mono.just("Hello-World")
-                .log();
+                .transform(SignalTrace.mono("mono"));
     }
 
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<Long> stream()  {
         return Flux.interval(Duration.ofSeconds(1))
-                .log();
+                .transform(SignalTrace.flux("stream"));
     }
 }
@@ -1,21 +1,34 @@
 package com.reactivespring.controller;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoBulkResult;
 import com.reactivespring.service.MovieInfoService;
+import com.reactivespring.support.ETags;
+import com.reactivespring.tracing.SignalTrace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
 import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/v1")
 public class MovieInfoController {
     private MovieInfoService movieInfoService;
 
+    @Value("${movieInfo.page.maxLimit:500}")
+    private int pageMaxLimit;
+
     public MovieInfoController(MovieInfoService movieInfoService) {
         this.movieInfoService = movieInfoService;
     }
@@ -23,19 +36,49 @@ public class MovieInfoController {
     @PostMapping("/movieInfo")
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<MovieInfo> addMovieInfo(@RequestBody @Valid MovieInfo movieInfoToAdd) {
-        return movieInfoService.addMovieInfo(movieInfoToAdd).log();
+        return movieInfoService.addMovieInfo(movieInfoToAdd).transform(SignalTrace.mono("addMovieInfo"));
+    }
+
+    //accepts a JSON array or NDJSON and streams back one result per element as it is written
+    @PostMapping(value = "/movieInfo/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<MovieInfoBulkResult> addMovieInfoBulk(@RequestBody Flux<MovieInfo> movieInfoFlux) {
+        return movieInfoService.addMovieInfoBulk(movieInfoFlux);
     }
 
+    //If-Match carries a previous ETag; a stale one gets 412 instead of overwriting someone else's change
     @PutMapping("/movieInfo/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public Mono<MovieInfo> modifyMovieById(@PathVariable String id, @RequestBody @Valid MovieInfo updatedMovieInfo) {
-        return movieInfoService.updateMovieInfoById(id, updatedMovieInfo).log();
+    public Mono<ResponseEntity<MovieInfo>> modifyMovieById(@PathVariable String id, @RequestBody @Valid MovieInfo updatedMovieInfo,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return movieInfoService.updateMovieInfoById(id, updatedMovieInfo)
+                    .map(this::okWithETag)
+                    .defaultIfEmpty(ResponseEntity.notFound().build())
+                    .transform(SignalTrace.mono("modifyMovieById"));
+        }
+        var expectedETag = ETags.parseStrong(ifMatch);
+        if (expectedETag == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+        }
+        return movieInfoService.updateMovieInfoById(id, updatedMovieInfo, expectedETag)
+                .map(this::okWithETag)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()))
+                .transform(SignalTrace.mono("modifyMovieById"));
     }
 
+    private ResponseEntity<MovieInfo> okWithETag(MovieInfo movieInfo) {
+        return ResponseEntity.ok()
+                .eTag(movieInfo.eTag())
+                .body(movieInfo);
+    }
+
+    //the ETag lets WebFlux answer If-None-Match with 304 and no body
     @GetMapping("/movieInfo/{id}")
     public Mono<ResponseEntity<MovieInfo>> getMovieInfoById(@PathVariable String id) {
         return movieInfoService.getMovieInfoById(id)
-                .map(ResponseEntity::ok)
+                .map(this::okWithETag)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -43,7 +86,8 @@ public class MovieInfoController {
     public Flux<ResponseEntity<MovieInfo>> getMovieInfoById(@PathVariable Integer year) {
         return movieInfoService.getMovieInfoByYear(year)
                 .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build()).log();
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .transform(SignalTrace.flux("getMovieInfoByYear"));
     }
 
     @DeleteMapping("/movieInfo/{id}")
@@ -52,17 +96,40 @@ public class MovieInfoController {
         return movieInfoService.deleteMovieInfoById(id);
     }
 
-    @GetMapping("/movieInfo")
-    public Flux<MovieInfo> getAllMovieInfo(@RequestParam(value = "year", required = false) Integer year, @RequestParam(value = "title", required = false) String title, @RequestParam(value = "titleWord", required = false) String titleWord) {
+    //JSON array by default; NDJSON and SSE stream one element per flush with backpressure
+    @GetMapping(value = "/movieInfo", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<MovieInfo> getAllMovieInfo(@RequestParam(value = "year", required = false) Integer year, @RequestParam(value = "title", required = false) String title, @RequestParam(value = "titleWord", required = false) String titleWord, @RequestParam(value = "limit", required = false) Integer limit) {
         if (year != null) {
             return movieInfoService.getMovieInfoByYear(year);
         }
         if (titleWord != null) {
-            return movieInfoService.getAllMovieInfo().filter(movieInfo -> movieInfo.getTitle().contains(titleWord));
+            return movieInfoService.searchMovieInfoByTitleWord(titleWord, limit);
         }
         if (title != null) {
             return movieInfoService.getMovieInfoByTitle(title);
         }
-        return movieInfoService.getAllMovieInfo().log();
+        return movieInfoService.getAllMovieInfo().transform(SignalTrace.flux("getAllMovieInfo"));
+    }
+
+    @GetMapping(value = "/movieInfo", params = {"limit", "!year", "!title", "!titleWord"})
+    public Mono<ResponseEntity<List<MovieInfo>>> getMovieInfoPage(@RequestParam("limit") Integer limit, @RequestParam(value = "after", required = false) String after, ServerHttpRequest request) {
+        var pageSize = Math.max(1, Math.min(limit, pageMaxLimit));
+        //one extra document tells us whether there is a next page
+        return movieInfoService.getMovieInfoAfter(after, pageSize + 1)
+                .collectList()
+                .map(movieInfoList -> {
+                    if (movieInfoList.size() <= pageSize) {
+                        return ResponseEntity.ok(movieInfoList);
+                    }
+                    var page = movieInfoList.subList(0, pageSize);
+                    var nextLink = UriComponentsBuilder.fromPath(request.getPath().value())
+                            .queryParam("limit", pageSize)
+                            .queryParam("after", page.get(pageSize - 1).getMovieInfoId())
+                            .encode()
+                            .toUriString();
+                    return ResponseEntity.ok()
+                            .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"")
+                            .body(page);
+                });
     }
 }
@@ -1,9 +1,13 @@
 package com.reactivespring.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.reactivespring.support.ETags;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.NotBlank;
@@ -21,6 +25,7 @@ public class MovieInfo {
     @Id
     private String movieInfoId;
     @NotBlank(message = "Movie Title Must Be Present")
+    @TextIndexed
     private String title;
     @NotNull
     @Positive(message = "Year must be a positive value")
@@ -28,5 +33,27 @@ public class MovieInfo {
     @NotNull(message = "At least one cast member must be present")
     private List<@NotBlank(message = "At least one cast member must be present") String> cast;
     private LocalDate release_date;
+    //bumped on every update; what an If-Match update of a movie info without contentHash is conditional on
+    @Version
+    private Long version;
+    //hashContent() as of the last write, which every write sets; served as the ETag and matched by an If-Match update
+    @JsonIgnore
+    private String contentHash;
 
+    public MovieInfo(String movieInfoId, String title, Integer year, List<String> cast, LocalDate release_date) {
+        this(movieInfoId, title, year, cast, release_date, null);
+    }
+
+    public MovieInfo(String movieInfoId, String title, Integer year, List<String> cast, LocalDate release_date, Long version) {
+        this(movieInfoId, title, year, cast, release_date, version, null);
+    }
+
+    public String hashContent() {
+        return ETags.hash(title, year, cast, release_date);
+    }
+
+    //movie infos written before contentHash was stored get the hash they would have
+    public String eTag() {
+        return contentHash != null ? contentHash : hashContent();
+    }
 }
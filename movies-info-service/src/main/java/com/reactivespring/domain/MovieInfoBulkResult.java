@@ -0,0 +1,35 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Outcome of one element of a bulk ingest, identified by its position in the request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieInfoBulkResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    private long index;
+    private String movieInfoId;
+    private Status status;
+    private String error;
+
+    public static MovieInfoBulkResult created(long index, String movieInfoId) {
+        return new MovieInfoBulkResult(index, movieInfoId, Status.CREATED, null);
+    }
+
+    public static MovieInfoBulkResult invalid(long index, String movieInfoId, String error) {
+        return new MovieInfoBulkResult(index, movieInfoId, Status.INVALID, error);
+    }
+
+    public static MovieInfoBulkResult failed(long index, String movieInfoId, String error) {
+        return new MovieInfoBulkResult(index, movieInfoId, Status.FAILED, error);
+    }
+}
@@ -2,6 +2,8 @@ package com.reactivespring.exceptionhandler;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -22,4 +24,17 @@ public class GlobalErrorHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    //the driver message names the index and the key, so it stays in the log
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handleDuplicateKeyError(DuplicateKeyException e) {
+        log.info("Exception Caught in handleDuplicateKeyError : {} ", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Movie info already exists");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingError(OptimisticLockingFailureException e) {
+        log.info("Exception Caught in handleOptimisticLockingError : {} ", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Movie info has been modified");
+    }
+
 }
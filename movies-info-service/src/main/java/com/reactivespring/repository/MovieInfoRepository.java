@@ -1,6 +1,7 @@
 package com.reactivespring.repository;
 
 import com.reactivespring.domain.MovieInfo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 
@@ -8,4 +9,6 @@ public interface MovieInfoRepository extends ReactiveMongoRepository<MovieInfo,
 
     Flux<MovieInfo> findByYear(Integer year);
     Flux<MovieInfo> findByTitle(String title);
+
+    Flux<MovieInfo> findAllBy(Pageable pageable);
 }
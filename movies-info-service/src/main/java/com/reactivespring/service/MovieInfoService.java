@@ -1,28 +1,163 @@
 package com.reactivespring.service;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoBulkResult;
 import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.support.Batches;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 public class MovieInfoService {
 
+    //the $type number; the alias form of Criteria.type renders as an array, which needs Mongo 3.6
+    private static final int BSON_OBJECT_ID = 7;
+
     private MovieInfoRepository movieInfoRepository;
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    private Validator validator;
+
+    @Value("${movieInfo.search.maxResults:50}")
+    private int searchMaxResults;
+
+    @Value("${movieInfo.bulk.batchSize:500}")
+    private int bulkBatchSize;
+
+    @Value("${movieInfo.bulk.maxBatchWait:100ms}")
+    private Duration bulkMaxBatchWait;
 
-    public MovieInfoService(MovieInfoRepository movieInfoRepository) {
+    @Value("${movieInfo.bulk.writeConcurrency:2}")
+    private int bulkWriteConcurrency;
+
+    public MovieInfoService(MovieInfoRepository movieInfoRepository, ReactiveMongoTemplate reactiveMongoTemplate, Validator validator) {
         this.movieInfoRepository = movieInfoRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.validator = validator;
     }
 
+    //a create never carries a version: an echoed one would turn the save into a versioned update of a document that
+    //does not exist; an id that is already taken fails with DuplicateKeyException
     public Mono<MovieInfo> addMovieInfo(MovieInfo movieInfoToAdd) {
+        movieInfoToAdd.setVersion(null);
+        movieInfoToAdd.setContentHash(movieInfoToAdd.hashContent());
         return movieInfoRepository.save(movieInfoToAdd);
     }
 
+    //validates each element, writes the valid ones in unordered insertMany batches and reports every element's outcome
+    public Flux<MovieInfoBulkResult> addMovieInfoBulk(Flux<MovieInfo> movieInfoFlux) {
+        return Batches.onDemand(movieInfoFlux.index(), bulkBatchSize, bulkMaxBatchWait)
+                .flatMapSequential(this::insertBatch, bulkWriteConcurrency);
+    }
+
+    private Flux<MovieInfoBulkResult> insertBatch(List<Tuple2<Long, MovieInfo>> batch) {
+        var results = new ArrayList<MovieInfoBulkResult>(batch.size());
+        var toInsert = new ArrayList<Tuple2<Long, MovieInfo>>(batch.size());
+        for (var item : batch) {
+            var movieInfo = item.getT2();
+            var error = validate(movieInfo);
+            if (error != null) {
+                results.add(MovieInfoBulkResult.invalid(item.getT1(), movieInfo.getMovieInfoId(), error));
+                continue;
+            }
+            //assigned up front so every result can name the document it created
+            if (movieInfo.getMovieInfoId() == null) {
+                movieInfo.setMovieInfoId(new ObjectId().toHexString());
+            }
+            movieInfo.setContentHash(movieInfo.hashContent());
+            toInsert.add(item);
+        }
+        if (toInsert.isEmpty()) {
+            return Flux.fromIterable(results);
+        }
+        var documents = toInsert.stream()
+                .map(item -> {
+                    var document = new Document();
+                    reactiveMongoTemplate.getConverter().write(item.getT2(), document);
+                    return document;
+                })
+                .collect(Collectors.toList());
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(insertManyResult -> Map.<Integer, BulkWriteError>of())
+                //unordered: the other documents of the batch are still written, only the failed positions are reported
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(e.getWriteErrors().stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()))))
+                .flatMapMany(writeErrors -> {
+                    for (int i = 0; i < toInsert.size(); i++) {
+                        var item = toInsert.get(i);
+                        var writeError = writeErrors.get(i);
+                        results.add(writeError == null
+                                ? MovieInfoBulkResult.created(item.getT1(), item.getT2().getMovieInfoId())
+                                : MovieInfoBulkResult.failed(item.getT1(), item.getT2().getMovieInfoId(), writeError.getMessage()));
+                    }
+                    results.sort((left, right) -> Long.compare(left.getIndex(), right.getIndex()));
+                    return Flux.fromIterable(results);
+                });
+    }
+
+    private String validate(MovieInfo movieInfo) {
+        var constraintViolations = validator.validate(movieInfo);
+        if (constraintViolations.isEmpty()) {
+            return null;
+        }
+        return constraintViolations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
     public Flux<MovieInfo> getAllMovieInfo() {
         return movieInfoRepository.findAll();
     }
 
+    //keyset page: resumes after the given _id instead of skipping, so every page costs the same
+    public Flux<MovieInfo> getMovieInfoAfter(String afterId, int count) {
+        var pageable = PageRequest.of(0, count, Sort.by("movieInfoId"));
+        if (afterId == null) {
+            return movieInfoRepository.findAllBy(pageable);
+        }
+        return reactiveMongoTemplate.find(query(movieInfoIdAfter(afterId)).with(pageable), MovieInfo.class);
+    }
+
+    //_id holds both strings and ObjectIds: $gt only compares within one BSON type, and every ObjectId sorts after every string
+    private static Criteria movieInfoIdAfter(String afterId) {
+        if (ObjectId.isValid(afterId)) {
+            return where("movieInfoId").gt(new ObjectId(afterId));
+        }
+        return new Criteria().orOperator(
+                where("movieInfoId").gt(afterId),
+                where("movieInfoId").type(BSON_OBJECT_ID));
+    }
+
     public Mono<MovieInfo> getMovieInfoById(String id) {
         return movieInfoRepository.findById(id);
     }
@@ -34,17 +169,44 @@ public class MovieInfoService {
         return movieInfoRepository.findByTitle(title);
     }
 
+    //$text search on the title index, most relevant first and never more than searchMaxResults
+    public Flux<MovieInfo> searchMovieInfoByTitleWord(String titleWord, Integer limit) {
+        var maxResults = (limit == null || limit <= 0) ? searchMaxResults : Math.min(limit, searchMaxResults);
+        var query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(titleWord))
+                .sortByScore()
+                .limit(maxResults);
+        return reactiveMongoTemplate.find(query, MovieInfo.class);
+    }
+
     public Mono<Void> deleteMovieInfoById(String id) {
         return movieInfoRepository.deleteById(id);
     }
 
     public Mono<MovieInfo> updateMovieInfoById(String id, MovieInfo updatedMovieInfo) {
-        return movieInfoRepository.findById(id).flatMap( movieInfo -> {
-            movieInfo.setTitle(updatedMovieInfo.getTitle());
-            movieInfo.setYear(updatedMovieInfo.getYear());
-            movieInfo.setCast(updatedMovieInfo.getCast());
-            movieInfo.setRelease_date(updatedMovieInfo.getRelease_date());
-            return movieInfoRepository.save(movieInfo);
-        });
+        return findAndModify(where("movieInfoId").is(id), updatedMovieInfo);
+    }
+
+    //one findAndModify conditional on the stored content hash. Only a miss reads the document: empty if it does not exist,
+    //OptimisticLockingFailureException if it changed, and one more conditional try if it was written before hashes were stored
+    public Mono<MovieInfo> updateMovieInfoById(String id, MovieInfo updatedMovieInfo, String expectedETag) {
+        return findAndModify(where("movieInfoId").is(id).and("contentHash").is(expectedETag), updatedMovieInfo)
+                .switchIfEmpty(Mono.defer(() -> movieInfoRepository.findById(id)
+                        .flatMap(existingMovieInfo -> {
+                            var unhashedMatch = existingMovieInfo.getContentHash() == null && existingMovieInfo.hashContent().equals(expectedETag)
+                                    ? findAndModify(where("movieInfoId").is(id).and("contentHash").is(null).and("version").is(existingMovieInfo.getVersion()), updatedMovieInfo)
+                                    : Mono.<MovieInfo>empty();
+                            return unhashedMatch.switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException("Movie info has been modified for id: " + id)));
+                        })));
+    }
+
+    private Mono<MovieInfo> findAndModify(Criteria criteria, MovieInfo updatedMovieInfo) {
+        var update = new Update()
+                .set("title", updatedMovieInfo.getTitle())
+                .set("year", updatedMovieInfo.getYear())
+                .set("cast", updatedMovieInfo.getCast())
+                .set("release_date", updatedMovieInfo.getRelease_date())
+                .set("contentHash", updatedMovieInfo.hashContent())
+                .inc("version", 1);
+        return reactiveMongoTemplate.findAndModify(query(criteria), update, FindAndModifyOptions.options().returnNew(true), MovieInfo.class);
     }
 }
@@ -0,0 +1,72 @@
+package com.reactivespring.tracing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.util.function.Function;
+
+//Per-request handle put in the Reactor Context by SignalTraceWebFilter when a request is sampled.
+//Pipelines opt in with .transform(SignalTrace.mono("name")) / .transform(SignalTrace.flux("name")):
+//an unsampled request pays one context lookup per subscription, nothing per signal
+public class SignalTrace {
+
+    public static final String CONTEXT_KEY = SignalTrace.class.getName();
+
+    private final String traceId;
+    private final long startNanos = System.nanoTime();
+    private final SignalTraceWriter writer;
+    private final int maxValueLength;
+
+    SignalTrace(String traceId, SignalTraceWriter writer, int maxValueLength) {
+        this.traceId = traceId;
+        this.writer = writer;
+        this.maxValueLength = maxValueLength;
+    }
+
+    public static <T> Function<Mono<T>, Mono<T>> mono(String operation) {
+        return source -> Mono.deferContextual(context -> context.<SignalTrace>getOrEmpty(CONTEXT_KEY)
+                .map(trace -> source
+                        .doOnSubscribe(subscription -> trace.emit(operation, "subscribe", null))
+                        .doOnEach(signal -> trace.emit(operation, signal))
+                        .doOnCancel(() -> trace.emit(operation, "cancel", null)))
+                .orElse(source));
+    }
+
+    public static <T> Function<Flux<T>, Flux<T>> flux(String operation) {
+        return source -> Flux.deferContextual(context -> context.<SignalTrace>getOrEmpty(CONTEXT_KEY)
+                .map(trace -> source
+                        .doOnSubscribe(subscription -> trace.emit(operation, "subscribe", null))
+                        .doOnEach(signal -> trace.emit(operation, signal))
+                        .doOnCancel(() -> trace.emit(operation, "cancel", null)))
+                .orElse(source));
+    }
+
+    void emit(String operation, String signal, String detail) {
+        writer.emit(new SignalTraceEvent(System.currentTimeMillis(), traceId, operation, signal,
+                (System.nanoTime() - startNanos) / 1000, Thread.currentThread().getName(), truncate(detail)));
+    }
+
+    private void emit(String operation, Signal<?> signal) {
+        switch (signal.getType()) {
+            case ON_NEXT:
+                emit(operation, "onNext", String.valueOf(signal.get()));
+                break;
+            case ON_ERROR:
+                emit(operation, "onError", String.valueOf(signal.getThrowable()));
+                break;
+            case ON_COMPLETE:
+                emit(operation, "onComplete", null);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private String truncate(String detail) {
+        if (detail == null || detail.length() <= maxValueLength) {
+            return detail;
+        }
+        return detail.substring(0, maxValueLength) + "...";
+    }
+}
@@ -0,0 +1,19 @@
+package com.reactivespring.tracing;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+//One reactive signal of a sampled request, written as a JSON line to the signal-trace logger
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SignalTraceEvent {
+    long timestamp;
+    String traceId;
+    String operation;
+    String signal;
+    //since the request entered the filter
+    long elapsedMicros;
+    String thread;
+    //the value of an onNext, the error of an onError, or the route of the request event
+    String detail;
+}
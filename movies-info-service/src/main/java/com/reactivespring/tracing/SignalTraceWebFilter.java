@@ -0,0 +1,68 @@
+package com.reactivespring.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+//Decides per request whether its reactive signals are traced: 1 in tracing.signals.sampleOneIn requests,
+//plus every request sending the debug header. Only created when tracing.signals.enabled=true
+@Component
+@ConditionalOnProperty(prefix = "tracing.signals", name = "enabled", havingValue = "true")
+public class SignalTraceWebFilter implements WebFilter, DisposableBean {
+
+    public static final String TRACE_ID_HEADER = "X-Debug-Trace-Id";
+
+    private final SignalTraceWriter writer;
+
+    //0 turns random sampling off, leaving only header-triggered traces
+    @Value("${tracing.signals.sampleOneIn:0}")
+    private int sampleOneIn;
+
+    @Value("${tracing.signals.debugHeader:X-Debug-Trace}")
+    private String debugHeader;
+
+    @Value("${tracing.signals.maxValueLength:200}")
+    private int maxValueLength;
+
+    public SignalTraceWebFilter(ObjectMapper objectMapper, @Value("${tracing.signals.queueCapacity:10000}") int queueCapacity) {
+        this.writer = new SignalTraceWriter(objectMapper, queueCapacity);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var request = exchange.getRequest();
+        if (!isSampled(request)) {
+            return chain.filter(exchange);
+        }
+        var trace = new SignalTrace(request.getId(), writer, maxValueLength);
+        trace.emit("request", "start", request.getMethodValue() + " " + request.getPath().value());
+        exchange.getResponse().getHeaders().set(TRACE_ID_HEADER, request.getId());
+        return chain.filter(exchange)
+                .doFinally(signalType -> {
+                    var status = exchange.getResponse().getRawStatusCode();
+                    trace.emit("request", "end", status == null ? null : String.valueOf(status));
+                })
+                .contextWrite(context -> context.put(SignalTrace.CONTEXT_KEY, trace));
+    }
+
+    private boolean isSampled(ServerHttpRequest request) {
+        if ("true".equalsIgnoreCase(request.getHeaders().getFirst(debugHeader))) {
+            return true;
+        }
+        return sampleOneIn > 0 && ThreadLocalRandom.current().nextInt(sampleOneIn) == 0;
+    }
+
+    @Override
+    public void destroy() {
+        writer.dispose();
+    }
+}
@@ -0,0 +1,69 @@
+package com.reactivespring.tracing;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import reactor.core.publisher.Mono;
+
+//ReactiveMongoTemplate resolves the database once per operation, inside the operation's subscription,
+//so the Reactor Context seen here carries the TraceContext that Sleuth's TraceWebFilter put there.
+//The reactive driver has no way to pass that context to a CommandListener, hence the wrapping
+public class TracingReactiveMongoDatabaseFactory implements ReactiveMongoDatabaseFactory {
+
+    private final ReactiveMongoDatabaseFactory delegate;
+    private final Tracer tracer;
+
+    public TracingReactiveMongoDatabaseFactory(ReactiveMongoDatabaseFactory delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase() throws DataAccessException {
+        return traced(delegate.getMongoDatabase());
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase(String dbName) throws DataAccessException {
+        return traced(delegate.getMongoDatabase(dbName));
+    }
+
+    //operations outside a sampled trace, like index creation on startup, get the plain database
+    private Mono<MongoDatabase> traced(Mono<MongoDatabase> database) {
+        return Mono.deferContextual(context -> context.<TraceContext>getOrEmpty(TraceContext.class)
+                .filter(parent -> Boolean.TRUE.equals(parent.sampled()))
+                .map(parent -> database.map(mongoDatabase -> MongoSpanInvocationHandler.database(mongoDatabase, tracer, parent)))
+                .orElse(database));
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    public CodecRegistry getCodecRegistry() {
+        return delegate.getCodecRegistry();
+    }
+
+    @Override
+    public Mono<ClientSession> getSession(ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public ReactiveMongoDatabaseFactory withSession(ClientSession session) {
+        return new TracingReactiveMongoDatabaseFactory(delegate.withSession(session), tracer);
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+}
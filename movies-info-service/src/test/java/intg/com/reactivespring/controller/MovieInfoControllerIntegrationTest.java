@@ -1,13 +1,18 @@
 package com.reactivespring.controller;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoBulkResult;
 import com.reactivespring.repository.MovieInfoRepository;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -15,7 +20,9 @@ import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,6 +61,50 @@ class MovieInfoControllerIntegrationTest {
         movieInfoRepository.deleteAll().block();
     }
 
+    @Test
+    void addMovieInfoBulkTest() {
+
+        var movieInfoList = List.of(
+                new MovieInfo(null, "Weird Science",
+                        1985, List.of("Kelly LeBrock", "Anthony Michael Hall"), LocalDate.parse("1985-08-02")),
+                new MovieInfo(null, "",
+                        1986, List.of("Matthew Broderick"), LocalDate.parse("1986-06-11")),
+                //already stored in setUp
+                new MovieInfo("abc", "Dark Knight Rises",
+                        2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")),
+                new MovieInfo(null, "The Breakfast Club",
+                        1985, List.of("Molly Ringwald", "Judd Nelson"), LocalDate.parse("1985-02-15"))
+        );
+
+        var results = webTestClient
+                .post()
+                .uri(MOVIE_INFO_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(movieInfoList)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(MovieInfoBulkResult.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertNotNull(results);
+        assertEquals(4, results.size());
+        assertEquals(MovieInfoBulkResult.Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getMovieInfoId());
+        assertEquals(MovieInfoBulkResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals("Movie Title Must Be Present", results.get(1).getError());
+        //unordered insert: the duplicate fails on its own without stopping the rest of the batch
+        assertEquals(MovieInfoBulkResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals(MovieInfoBulkResult.Status.CREATED, results.get(3).getStatus());
+
+        StepVerifier.create(movieInfoRepository.findAll())
+                .expectNextCount(6)
+                .verifyComplete();
+    }
+
     @Test
     void addMovieInfoTest() {
 
@@ -81,6 +132,40 @@ class MovieInfoControllerIntegrationTest {
                 });
    }
 
+    @Test
+    void addMovieInfoWithEchoedVersionTest() {
+        //e.g. the body of a previous GET, posted back under a new id
+        var newMovie = new MovieInfo("ws1985", "Weird Science",
+                1985, List.of("Kelly LeBrock"), LocalDate.parse("1985-08-02"), 3L);
+
+        webTestClient
+                .post()
+                .uri(MOVIE_INFO_URL)
+                .bodyValue(newMovie)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        StepVerifier.create(movieInfoRepository.findById("ws1985"))
+                .assertNext(movieInfo -> assertEquals(0L, movieInfo.getVersion()))
+                .verifyComplete();
+    }
+
+    @Test
+    void failAddMovieInfoExistingIdTest() {
+        //saved in setUp
+        var newMovie = new MovieInfo("abc", "Weird Science",
+                1985, List.of("Kelly LeBrock"), LocalDate.parse("1985-08-02"));
+
+        webTestClient
+                .post()
+                .uri(MOVIE_INFO_URL)
+                .bodyValue(newMovie)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
     @Test
     void getMovieInfoByIdTest() {
 
@@ -161,6 +246,92 @@ class MovieInfoControllerIntegrationTest {
     }
 
 
+    @Test
+    void updateMovieInfoByIdStaleIfMatchTest() {
+        var movieInfoId = "mib3";
+        var update = new MovieInfo(null, "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones", "Josh Brolin"), LocalDate.parse("2012-05-25"));
+
+        var eTag = webTestClient.get()
+                .uri(MOVIE_INFO_URL + "/{id}", movieInfoId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(eTag);
+
+        var updatedETag = webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", movieInfoId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotEquals(eTag, updatedETag);
+
+        webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", movieInfoId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void updateAddedMovieInfoByIdWithIfMatchTest() {
+        var movieInfo = new MovieInfo(null, "Weird Science",
+                1985, List.of("Kelly LeBrock"), LocalDate.parse("1985-08-02"));
+        var update = new MovieInfo(null, "Weird Science",
+                1985, List.of("Kelly LeBrock", "Anthony Michael Hall"), LocalDate.parse("1985-08-02"));
+
+        var addedMovieInfo = webTestClient.post()
+                .uri(MOVIE_INFO_URL)
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(MovieInfo.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(addedMovieInfo);
+        var movieInfoId = addedMovieInfo.getMovieInfoId();
+
+        var eTag = webTestClient.get()
+                .uri(MOVIE_INFO_URL + "/{id}", movieInfoId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+
+        var updatedETag = webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", movieInfoId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+        assertEquals("\"" + movieInfoRepository.findById(movieInfoId).block().getContentHash() + "\"", updatedETag);
+
+        webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", "nonya")
+                .header(HttpHeaders.IF_MATCH, updatedETag)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
     @Test
     void deleteMovieInfoByIdTest() {
 
@@ -204,6 +375,73 @@ class MovieInfoControllerIntegrationTest {
                 .hasSize(4);
    }
 
+    @Test
+    void getMovieInfoPagesTest() {
+
+        var firstPage = webTestClient
+                .get()
+                .uri(MOVIE_INFO_URL + "?limit=3")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(3)
+                .returnResult();
+
+        var nextLink = firstPage.getResponseHeaders().getFirst("Link");
+        assertNotNull(nextLink);
+        assertTrue(nextLink.endsWith(">; rel=\"next\""));
+        var nextUri = nextLink.substring(1, nextLink.indexOf('>'));
+
+        webTestClient
+                .get()
+                .uri(nextUri)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .doesNotExist("Link")
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getMovieInfoPagesEndingOnStringIdTest() {
+        //"abc" and "mib3" sort before the generated ObjectIds, so the first page ends on "mib3"
+        var movieInfoIds = getAllMovieInfoPages(2);
+
+        assertEquals(List.of("abc", "mib3"), movieInfoIds.subList(0, 2));
+        assertEquals(4, Set.copyOf(movieInfoIds).size());
+    }
+
+    @Test
+    void getMovieInfoPagesEndingOnObjectIdTest() {
+        //the first page ends on the first generated ObjectId
+        var movieInfoIds = getAllMovieInfoPages(3);
+
+        assertTrue(ObjectId.isValid(movieInfoIds.get(2)));
+        assertEquals(4, Set.copyOf(movieInfoIds).size());
+    }
+
+    private List<String> getAllMovieInfoPages(int limit) {
+        var movieInfoIds = new ArrayList<String>();
+        var uri = MOVIE_INFO_URL + "?limit=" + limit;
+        while (uri != null) {
+            var page = webTestClient
+                    .get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus()
+                    .is2xxSuccessful()
+                    .expectBodyList(MovieInfo.class)
+                    .returnResult();
+            page.getResponseBody().forEach(movieInfo -> movieInfoIds.add(movieInfo.getMovieInfoId()));
+            var nextLink = page.getResponseHeaders().getFirst("Link");
+            uri = nextLink == null ? null : nextLink.substring(1, nextLink.indexOf('>'));
+        }
+        return movieInfoIds;
+    }
+
     @Test
     void getMovieInfoByYearTest() {
 
@@ -292,6 +530,46 @@ class MovieInfoControllerIntegrationTest {
     }
 
 
+    @Test
+    void getAllMovieInfoByTitleWordTestByRequestParameter() {
+
+        var uri = UriComponentsBuilder.fromUriString(MOVIE_INFO_URL)
+                .queryParam("titleWord", "Knight")
+                .buildAndExpand().toUri();
+
+        webTestClient
+                .get()
+                .uri(uri)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(2)
+                .consumeWith(movieInfoEntityExchangeResult -> {
+                    var movieInfoList = movieInfoEntityExchangeResult.getResponseBody();
+                    assertNotNull(movieInfoList);
+                    assertTrue(movieInfoList.stream().allMatch(movieInfo -> movieInfo.getTitle().contains("Knight")));
+                });
+    }
+
+    @Test
+    void getAllMovieInfoByTitleWordTestWithLimit() {
+
+        var uri = UriComponentsBuilder.fromUriString(MOVIE_INFO_URL)
+                .queryParam("titleWord", "Knight")
+                .queryParam("limit", 1)
+                .buildAndExpand().toUri();
+
+        webTestClient
+                .get()
+                .uri(uri)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
     @Test
     void getMovieInfoByTitleTest() {
 
@@ -1,21 +1,32 @@
 package com.reactivespring.controller;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoBulkResult;
 import com.reactivespring.service.MovieInfoService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -55,6 +66,104 @@ class MovieInfoControllerUnitTest {
 
     }
 
+    @Test
+    void getAllMovieInfoAsNdjsonStream() {
+
+        var movieInfoList = List.of(
+                new MovieInfo("abc", "Batman Begins",
+                        2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo("def", "The Dark Knight",
+                        2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18"))
+        );
+
+        when(movieInfoServiceMock.getAllMovieInfo()).thenReturn(Flux.fromIterable(movieInfoList));
+
+        var movieInfoFlux = webTestClient.get()
+                .uri(MOVIE_INFO_URL)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(MovieInfo.class)
+                .getResponseBody();
+
+        StepVerifier.create(movieInfoFlux)
+                .expectNext(movieInfoList.get(0))
+                .expectNext(movieInfoList.get(1))
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllMovieInfoByTitleWord() {
+
+        var movieInfoList = List.of(
+                new MovieInfo(null, "The Dark Knight",
+                        2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("abc", "Dark Knight Rises",
+                        2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
+        );
+
+        when(movieInfoServiceMock.searchMovieInfoByTitleWord("Knight", 10)).thenReturn(Flux.fromIterable(movieInfoList));
+
+        webTestClient.get()
+                .uri(MOVIE_INFO_URL + "?titleWord=Knight&limit=10")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .isEqualTo(movieInfoList);
+
+        verify(movieInfoServiceMock, never()).getAllMovieInfo();
+    }
+
+    @Test
+    void getMovieInfoPage() {
+
+        var movieInfoList = List.of(
+                new MovieInfo("abc", "Dark Knight Rises",
+                        2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")),
+                new MovieInfo("bcd", "Batman Begins",
+                        2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo("cde", "The Dark Knight",
+                        2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18"))
+        );
+
+        when(movieInfoServiceMock.getMovieInfoAfter("aaa", 3)).thenReturn(Flux.fromIterable(movieInfoList));
+
+        webTestClient.get()
+                .uri(MOVIE_INFO_URL + "?limit=2&after=aaa")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .valueEquals("Link", "<" + MOVIE_INFO_URL + "?limit=2&after=bcd>; rel=\"next\"")
+                .expectBodyList(MovieInfo.class)
+                .isEqualTo(movieInfoList.subList(0, 2));
+    }
+
+    @Test
+    void getMovieInfoLastPage() {
+
+        var movieInfoList = List.of(
+                new MovieInfo("cde", "The Dark Knight",
+                        2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18"))
+        );
+
+        when(movieInfoServiceMock.getMovieInfoAfter("bcd", 3)).thenReturn(Flux.fromIterable(movieInfoList));
+
+        webTestClient.get()
+                .uri(MOVIE_INFO_URL + "?limit=2&after=bcd")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .doesNotExist("Link")
+                .expectBodyList(MovieInfo.class)
+                .isEqualTo(movieInfoList);
+    }
+
     @Test
     void addMovieInfoTest() {
 
@@ -84,6 +193,76 @@ class MovieInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void failAddMovieInfoExistingIdTest() {
+        var movieInfo = new MovieInfo("abc", "Weird Science",
+                1985, List.of("Kelly LeBrock"), LocalDate.parse("1985-08-02"));
+
+        when(movieInfoServiceMock.addMovieInfo(isA(MovieInfo.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error collection: local.movieInfo index: _id_ dup key: { _id: \"abc\" }")));
+
+        webTestClient
+                .post()
+                .uri(MOVIE_INFO_URL)
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class)
+                .isEqualTo("Movie info already exists");
+    }
+
+    @Test
+    void failAddMovieInfoOptimisticLockingTest() {
+        var movieInfo = new MovieInfo("abc", "Weird Science",
+                1985, List.of("Kelly LeBrock"), LocalDate.parse("1985-08-02"), 3L);
+
+        when(movieInfoServiceMock.addMovieInfo(isA(MovieInfo.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Cannot save entity abc with version 3")));
+
+        webTestClient
+                .post()
+                .uri(MOVIE_INFO_URL)
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class)
+                .isEqualTo("Movie info has been modified");
+    }
+
+    @Test
+    void addMovieInfoBulkTest() {
+
+        var ndjson = "{\"title\": \"Batman Begins\", \"year\": 2005, \"cast\": [\"Christian Bale\"]}\n"
+                + "{\"title\": \"\", \"year\": 2008, \"cast\": [\"Christian Bale\"]}\n";
+
+        when(movieInfoServiceMock.addMovieInfoBulk(any())).thenAnswer(invocation -> {
+            Flux<MovieInfo> movieInfoFlux = invocation.getArgument(0);
+            return movieInfoFlux.index()
+                    .map(item -> item.getT2().getTitle().isBlank()
+                            ? MovieInfoBulkResult.invalid(item.getT1(), null, "Movie Title Must Be Present")
+                            : MovieInfoBulkResult.created(item.getT1(), "id" + item.getT1()));
+        });
+
+        var resultFlux = webTestClient.post()
+                .uri(MOVIE_INFO_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(MovieInfoBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(resultFlux)
+                .expectNext(MovieInfoBulkResult.created(0, "id0"))
+                .expectNext(MovieInfoBulkResult.invalid(1, null, "Movie Title Must Be Present"))
+                .verifyComplete();
+    }
+
     @Test
     void FailAddMovieInfoBlankTitleTest() {
 
@@ -191,6 +370,51 @@ class MovieInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void getMovieInfoByIdNotModifiedTest() {
+        var movieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), 4L);
+
+        when(movieInfoServiceMock.getMovieInfoById("mib3")).thenReturn(Mono.just(movieInfo));
+
+        webTestClient.get()
+                .uri(MOVIE_INFO_URL + "/{id}", "mib3")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag(movieInfo))
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(movieInfo))
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    void getMovieInfoByIdRecreatedWithOtherContentTest() {
+        //deleted and recreated: the version starts over, but the content differs
+        var previousMovieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), 0L);
+        var movieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones", "Josh Brolin"), LocalDate.parse("2012-05-25"), 0L);
+
+        when(movieInfoServiceMock.getMovieInfoById("mib3")).thenReturn(Mono.just(movieInfo));
+
+        webTestClient.get()
+                .uri(MOVIE_INFO_URL + "/{id}", "mib3")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag(previousMovieInfo))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(movieInfo))
+                .expectBody(MovieInfo.class)
+                .isEqualTo(movieInfo);
+    }
+
+    private String eTag(MovieInfo movieInfo) {
+        return "\"" + movieInfo.eTag() + "\"";
+    }
+
     @Test
     void failToGetMovieInfoByIdTest() {
 
@@ -237,6 +461,77 @@ class MovieInfoControllerUnitTest {
     }
 
 
+    @Test
+    void failToUpdateMovieInfoByIdStaleIfMatchTest() {
+        var movieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), 1L);
+        var staleMovieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith"), LocalDate.parse("2012-07-13"), 0L);
+
+        when(movieInfoServiceMock.updateMovieInfoById(eq("mib3"), isA(MovieInfo.class), eq(staleMovieInfo.eTag())))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Movie info has been modified for id: mib3")));
+
+        webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", "mib3")
+                .header(HttpHeaders.IF_MATCH, eTag(staleMovieInfo))
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void failToUpdateMovieInfoByIdWeakIfMatchTest() {
+        var movieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), 1L);
+
+        webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", "mib3")
+                .header(HttpHeaders.IF_MATCH, "W/" + eTag(movieInfo))
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(movieInfoServiceMock, never()).updateMovieInfoById(any(), any(), any());
+    }
+
+    @Test
+    void failToUpdateMovieInfoByIdIfMatchNotFoundTest() {
+        var movieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), 1L);
+
+        when(movieInfoServiceMock.updateMovieInfoById(eq("mib3"), isA(MovieInfo.class), eq(movieInfo.eTag()))).thenReturn(Mono.empty());
+
+        webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", "mib3")
+                .header(HttpHeaders.IF_MATCH, eTag(movieInfo))
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void updateMovieInfoByIdWithIfMatchTest() {
+        var movieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), 1L);
+        var updatedMovieInfo = new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones", "Josh Brolin"), LocalDate.parse("2012-07-13"), 2L);
+
+        when(movieInfoServiceMock.updateMovieInfoById(eq("mib3"), isA(MovieInfo.class), eq(movieInfo.eTag()))).thenReturn(Mono.just(updatedMovieInfo));
+
+        webTestClient.put()
+                .uri(MOVIE_INFO_URL + "/{id}", "mib3")
+                .header(HttpHeaders.IF_MATCH, eTag(movieInfo))
+                .bodyValue(updatedMovieInfo)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(updatedMovieInfo));
+        verify(movieInfoServiceMock, never()).getMovieInfoById(any());
+    }
+
     @Test
     void deleteMovieInfoByIdTest() {
 
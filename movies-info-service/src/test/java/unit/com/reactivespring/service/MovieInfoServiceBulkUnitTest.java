@@ -0,0 +1,70 @@
+package com.reactivespring.service;
+
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.validation.Validation;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovieInfoServiceBulkUnitTest {
+
+    private MovieInfoService movieInfoService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        //every write takes longer than the batch wait, so small batches pile up behind the two being written
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(InsertManyResult.acknowledged(Map.of())));
+
+        var reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(reactiveMongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(reactiveMongoTemplate.getCollectionName(MovieInfo.class)).thenReturn("movieInfo");
+        when(reactiveMongoTemplate.getCollection("movieInfo")).thenReturn(Mono.just(collection));
+
+        movieInfoService = new MovieInfoService(mock(MovieInfoRepository.class), reactiveMongoTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(movieInfoService, "bulkBatchSize", 4);
+        ReflectionTestUtils.setField(movieInfoService, "bulkMaxBatchWait", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(movieInfoService, "bulkWriteConcurrency", 2);
+    }
+
+    @Test
+    void addMovieInfoBulkCompletesWhenMoviesTrickleThenBurstWhileWritesAreSlow() {
+        var trickle = Flux.range(0, 60)
+                .delayElements(Duration.ofMillis(10))
+                .map(this::movieInfo);
+        var burst = Flux.range(60, 100)
+                .map(this::movieInfo);
+
+        StepVerifier.create(movieInfoService.addMovieInfoBulk(Flux.concat(trickle, burst)))
+                .expectNextCount(160)
+                .expectComplete()
+                .verify(Duration.ofSeconds(30));
+    }
+
+    private MovieInfo movieInfo(int i) {
+        return new MovieInfo(null, "Movie " + i, 2005, List.of("Christian Bale"), LocalDate.parse("2005-06-15"));
+    }
+}
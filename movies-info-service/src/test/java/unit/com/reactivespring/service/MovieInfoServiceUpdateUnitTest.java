@@ -0,0 +1,108 @@
+package com.reactivespring.service;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieInfoServiceUpdateUnitTest {
+
+    private MovieInfoRepository movieInfoRepository;
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    private MovieInfoService movieInfoService;
+
+    private final MovieInfo update = new MovieInfo(null, "Men in Black 3",
+            2012, List.of("Will Smith", "Tommy Lee Jones", "Josh Brolin"), LocalDate.parse("2012-05-25"));
+
+    @BeforeEach
+    void setUp() {
+        movieInfoRepository = mock(MovieInfoRepository.class);
+        reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+        movieInfoService = new MovieInfoService(movieInfoRepository, reactiveMongoTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    void updateWithMatchingETagTakesOneFindAndModify() {
+        var updated = movieInfo(2L, update.hashContent());
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MovieInfo.class)))
+                .thenReturn(Mono.just(updated));
+
+        StepVerifier.create(movieInfoService.updateMovieInfoById("mib3", update, "current"))
+                .expectNext(updated)
+                .verifyComplete();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(reactiveMongoTemplate).findAndModify(query.capture(), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(MovieInfo.class));
+        assertEquals(new Document("movieInfoId", "mib3").append("contentHash", "current"), query.getValue().getQueryObject());
+        assertEquals(update.hashContent(), ((Document) updateCaptor.getValue().getUpdateObject().get("$set")).get("contentHash"));
+        verify(movieInfoRepository, never()).findById(any(String.class));
+    }
+
+    @Test
+    void updateWithETagOfMissingMovieInfoIsEmpty() {
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MovieInfo.class)))
+                .thenReturn(Mono.empty());
+        when(movieInfoRepository.findById("mib3")).thenReturn(Mono.empty());
+
+        StepVerifier.create(movieInfoService.updateMovieInfoById("mib3", update, "stale"))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateWithStaleETagFails() {
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MovieInfo.class)))
+                .thenReturn(Mono.empty());
+        when(movieInfoRepository.findById("mib3")).thenReturn(Mono.just(movieInfo(1L, "current")));
+
+        StepVerifier.create(movieInfoService.updateMovieInfoById("mib3", update, "stale"))
+                .verifyError(OptimisticLockingFailureException.class);
+        verify(reactiveMongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MovieInfo.class));
+    }
+
+    @Test
+    void updateOfMovieInfoWrittenBeforeHashesMatchesItsComputedHash() {
+        var unhashed = movieInfo(1L, null);
+        var updated = movieInfo(2L, update.hashContent());
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MovieInfo.class)))
+                .thenReturn(Mono.empty(), Mono.just(updated));
+        when(movieInfoRepository.findById("mib3")).thenReturn(Mono.just(unhashed));
+
+        StepVerifier.create(movieInfoService.updateMovieInfoById("mib3", update, unhashed.eTag()))
+                .expectNext(updated)
+                .verifyComplete();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveMongoTemplate, times(2)).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(MovieInfo.class));
+        assertEquals(new Document("movieInfoId", "mib3").append("contentHash", null).append("version", 1L),
+                query.getAllValues().get(1).getQueryObject());
+    }
+
+    private MovieInfo movieInfo(Long version, String contentHash) {
+        return new MovieInfo("mib3", "Men in Black 3",
+                2012, List.of("Will Smith", "Tommy Lee Jones"), LocalDate.parse("2012-07-13"), version, contentHash);
+    }
+}
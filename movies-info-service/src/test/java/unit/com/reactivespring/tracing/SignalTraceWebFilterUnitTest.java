@@ -0,0 +1,68 @@
+package com.reactivespring.tracing;
+
+import com.reactivespring.controller.FluxAndMonoController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WebFluxTest(controllers = FluxAndMonoController.class, properties = "tracing.signals.enabled=true")
+@AutoConfigureWebTestClient
+@ExtendWith(OutputCaptureExtension.class)
+class SignalTraceWebFilterUnitTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Test
+    void debugHeaderTracesEachSignal(CapturedOutput output) throws InterruptedException {
+        var traceId = webTestClient.get()
+                .uri("/flux")
+                .header("X-Debug-Trace", "true")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Integer.class)
+                .getResponseHeaders()
+                .getFirst(SignalTraceWebFilter.TRACE_ID_HEADER);
+
+        assertNotNull(traceId);
+        //events are written off the event loop
+        awaitTrue(() -> output.getOut().contains("\"traceId\":\"" + traceId + "\",\"operation\":\"flux\",\"signal\":\"onComplete\""));
+        var out = output.getOut();
+        assertTrue(out.contains("\"traceId\":\"" + traceId + "\",\"operation\":\"request\",\"signal\":\"start\""));
+        assertEquals(3, out.lines()
+                .filter(line -> line.contains("\"traceId\":\"" + traceId + "\",\"operation\":\"flux\",\"signal\":\"onNext\""))
+                .count());
+        assertTrue(out.contains("\"signal\":\"onNext\",\"elapsedMicros\""));
+    }
+
+    @Test
+    void unsampledRequestIsNotTraced(CapturedOutput output) throws InterruptedException {
+        webTestClient.get()
+                .uri("/mono")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(SignalTraceWebFilter.TRACE_ID_HEADER);
+
+        Thread.sleep(200);
+        assertFalse(output.getOut().contains("\"operation\":\"mono\""));
+    }
+
+    private void awaitTrue(Supplier<Boolean> condition) throws InterruptedException {
+        for (var i = 0; i < 50 && !condition.get(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.reactivespring.tracing;
+
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.reactivespring.domain.MovieInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.sleuth.brave.bridge.BraveBaggageManager;
+import org.springframework.cloud.sleuth.brave.bridge.BraveTraceContext;
+import org.springframework.cloud.sleuth.brave.bridge.BraveTracer;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//No Mongo is listening on the client's port, so every command fails fast on server selection;
+//that is enough to see which spans get started and how they are parented
+class TracingReactiveMongoDatabaseFactoryUnitTest {
+
+    private final List<MutableSpan> spans = new CopyOnWriteArrayList<>();
+
+    private Tracing tracing;
+    private MongoClient mongoClient;
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        tracing = Tracing.newBuilder()
+                .sampler(Sampler.ALWAYS_SAMPLE)
+                .addSpanHandler(new SpanHandler() {
+                    @Override
+                    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                        spans.add(span);
+                        return true;
+                    }
+                })
+                .build();
+        var tracer = new BraveTracer(tracing.tracer(), new BraveBaggageManager());
+        mongoClient = MongoClients.create("mongodb://localhost:1/?serverSelectionTimeoutMS=100");
+        reactiveMongoTemplate = new ReactiveMongoTemplate(new TracingReactiveMongoDatabaseFactory(
+                new SimpleReactiveMongoDatabaseFactory(mongoClient, "movies"), tracer));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        tracing.close();
+    }
+
+    @Test
+    void commandIsAClientSpanOfTheTraceInTheReactorContext() {
+        //given
+        var parent = tracing.tracer().newTrace().context();
+
+        //when
+        var movieInfo = reactiveMongoTemplate.findById("abc", MovieInfo.class)
+                .contextWrite(Context.of(org.springframework.cloud.sleuth.TraceContext.class, BraveTraceContext.fromBrave(parent)));
+
+        //then
+        StepVerifier.create(movieInfo)
+                .expectError()
+                .verify();
+        assertEquals(1, spans.size());
+        var span = spans.get(0);
+        assertEquals("find", span.name());
+        assertEquals(brave.Span.Kind.CLIENT, span.kind());
+        assertEquals(parent.traceIdString(), span.traceId());
+        assertEquals(parent.spanIdString(), span.parentId());
+        assertEquals("mongodb-movies", span.remoteServiceName());
+        assertEquals("movieInfo", span.tag("mongodb.collection"));
+        assertNotNull(span.error());
+    }
+
+    @Test
+    void noSpanWithoutATraceInTheReactorContext() {
+        //when
+        var movieInfo = reactiveMongoTemplate.findById("abc", MovieInfo.class);
+
+        //then
+        StepVerifier.create(movieInfo)
+                .expectError()
+                .verify();
+        assertTrue(spans.isEmpty());
+    }
+}
@@ -0,0 +1,31 @@
+package com.reactivespring.config;
+
+import com.reactivespring.tracing.TracingReactiveMongoDatabaseFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+
+//Sleuth 3.0 only instruments the synchronous Mongo driver, so Mongo client spans are added here
+//by decorating the ReactiveMongoDatabaseFactory every ReactiveMongoTemplate and repository goes through
+@Configuration
+@ConditionalOnProperty(prefix = "spring.sleuth.mongodb", name = "enabled", matchIfMissing = true)
+public class MongoTracingConfig {
+
+    @Bean
+    public static BeanPostProcessor tracingReactiveMongoDatabaseFactoryPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ReactiveMongoDatabaseFactory) || bean instanceof TracingReactiveMongoDatabaseFactory) {
+                    return bean;
+                }
+                var availableTracer = tracer.getIfAvailable();
+                return availableTracer == null ? bean : new TracingReactiveMongoDatabaseFactory((ReactiveMongoDatabaseFactory) bean, availableTracer);
+            }
+        };
+    }
+}
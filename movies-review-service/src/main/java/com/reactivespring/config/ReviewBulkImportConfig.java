@@ -0,0 +1,17 @@
+package com.reactivespring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReviewBulkImportConfig {
+
+    //bounded pool so a large import cannot take over the event loop or spawn unbounded threads
+    @Bean(destroyMethod = "dispose")
+    public Scheduler reviewValidationScheduler(@Value("${reviews.bulk.validationThreads:4}") int validationThreads) {
+        return Schedulers.newParallel("review-validation", validationThreads);
+    }
+}
@@ -0,0 +1,32 @@
+package com.reactivespring.config;
+
+import com.reactivespring.domain.Review;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+//Creates the indexes declared on Review (movieInfoId and movieInfoId+rating) before the server
+//starts taking requests, since Spring Data no longer auto-creates them
+@Slf4j
+@Component
+public class ReviewIndexInitializer implements SmartInitializingSingleton {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewIndexInitializer(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var indexResolver = IndexResolver.create(reactiveMongoTemplate.getConverter().getMappingContext());
+        var indexOps = reactiveMongoTemplate.indexOps(Review.class);
+        Flux.fromIterable(indexResolver.resolveIndexFor(Review.class))
+                .concatMap(indexOps::ensureIndex)
+                .doOnNext(indexName -> log.info("ensured index {} on {}", indexName, reactiveMongoTemplate.getCollectionName(Review.class)))
+                .blockLast();
+    }
+}
@@ -0,0 +1,29 @@
+package com.reactivespring.config;
+
+import com.reactivespring.repository.ReviewSummaryReactiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+//One-off migration for reviews written before the summaries existed: recomputes their summaries before the server
+//starts taking requests, so the $inc of each later add, update and delete lands on a complete summary.
+//Off by default; enable it for a single start of a single instance, then turn it off again
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "reviews.summary.backfillOnStartup", havingValue = "true")
+public class ReviewSummaryBackfill implements SmartInitializingSingleton {
+
+    private ReviewSummaryReactiveRepository reviewSummaryReactiveRepository;
+
+    public ReviewSummaryBackfill(ReviewSummaryReactiveRepository reviewSummaryReactiveRepository) {
+        this.reviewSummaryReactiveRepository = reviewSummaryReactiveRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var reviewSummaries = reviewSummaryReactiveRepository.rebuildAll()
+                .block();
+        log.info("rebuilt {} review summaries", reviewSummaries);
+    }
+}
@@ -1,10 +1,15 @@
 package com.reactivespring.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.reactivespring.support.ETags;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.Min;
@@ -14,13 +19,38 @@ import javax.validation.constraints.NotNull;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document
+@CompoundIndex(name = "movieInfoId_rating", def = "{'movieInfoId': 1, 'rating': 1}")
 public class Review {
 
     @Id
     private String reviewId;
+    @Indexed
     @NotNull(message = "review.movieInfoId : must not be null")
     private String movieInfoId;
     private String comment;
     @Min(value = 0L, message = "review.rating.negative : please pass a non-negative value")
     private Double rating;
+    //bumped on every update; what an If-Match update of a review without contentHash is conditional on
+    @Version
+    private Long version;
+    //hashContent() as of the last write, which every write sets; served as the ETag and matched by an If-Match update
+    @JsonIgnore
+    private String contentHash;
+
+    public Review(String reviewId, String movieInfoId, String comment, Double rating) {
+        this(reviewId, movieInfoId, comment, rating, null);
+    }
+
+    public Review(String reviewId, String movieInfoId, String comment, Double rating, Long version) {
+        this(reviewId, movieInfoId, comment, rating, version, null);
+    }
+
+    public String hashContent() {
+        return ETags.hash(movieInfoId, comment, rating);
+    }
+
+    //reviews written before contentHash was stored get the hash they would have
+    public String eTag() {
+        return contentHash != null ? contentHash : hashContent();
+    }
 }
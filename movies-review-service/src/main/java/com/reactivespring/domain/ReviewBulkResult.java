@@ -0,0 +1,35 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Outcome of one line of a bulk import, identified by its position in the request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBulkResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    private long index;
+    private String reviewId;
+    private Status status;
+    private String error;
+
+    public static ReviewBulkResult created(long index, String reviewId) {
+        return new ReviewBulkResult(index, reviewId, Status.CREATED, null);
+    }
+
+    public static ReviewBulkResult invalid(long index, String reviewId, String error) {
+        return new ReviewBulkResult(index, reviewId, Status.INVALID, error);
+    }
+
+    public static ReviewBulkResult failed(long index, String reviewId, String error) {
+        return new ReviewBulkResult(index, reviewId, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,44 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Running rating totals for one movie, kept up to date as reviews are added, updated and deleted
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class ReviewSummary {
+
+    @Id
+    private String movieInfoId;
+    private long count;
+    private double ratingSum;
+    //number of ratings per whole star, keyed by the floor of the rating
+    private Map<String, Long> histogram = new HashMap<>();
+
+    public ReviewSummary(String movieInfoId) {
+        this.movieInfoId = movieInfoId;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : ratingSum / count;
+    }
+
+    public ReviewSummary addRating(Double rating) {
+        count++;
+        ratingSum += rating;
+        histogram.merge(histogramBucket(rating), 1L, Long::sum);
+        return this;
+    }
+
+    public static String histogramBucket(Double rating) {
+        return String.valueOf((long) Math.floor(rating));
+    }
+}
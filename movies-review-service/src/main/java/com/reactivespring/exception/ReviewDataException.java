@@ -1,9 +1,10 @@
 package com.reactivespring.exception;
 
+//an expected 400: built without a stack trace, which GlobalErrorHandler never logs
 public class ReviewDataException extends RuntimeException {
     private String message;
     public ReviewDataException(String s) {
-        super(s);
+        super(s, null, false, false);
         this.message=s;
     }
 }
@@ -1,18 +1,19 @@
 package com.reactivespring.exception;
 
+//an expected 404: built without a stack trace, which GlobalErrorHandler never logs
 public class ReviewNotFoundException extends RuntimeException{
 
     private String message;
     private Throwable ex;
 
     public ReviewNotFoundException( String message, Throwable ex) {
-        super(message, ex);
+        super(message, ex, false, false);
         this.message = message;
         this.ex = ex;
     }
 
     public ReviewNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
         this.message = message;
     }
 }
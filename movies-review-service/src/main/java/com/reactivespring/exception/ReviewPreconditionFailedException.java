@@ -0,0 +1,12 @@
+package com.reactivespring.exception;
+
+//an expected 412: built without a stack trace, which GlobalErrorHandler never logs
+public class ReviewPreconditionFailedException extends RuntimeException{
+
+    private String message;
+
+    public ReviewPreconditionFailedException(String message) {
+        super(message, null, false, false);
+        this.message = message;
+    }
+}
@@ -0,0 +1,43 @@
+package com.reactivespring.exceptionhandler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//Lets at most maxPerInterval errors per fixed interval be logged, and counts the rest,
+//so a burst of failures costs one stack trace per permit instead of one per request
+class ErrorLogRateLimiter {
+
+    private final int maxPerInterval;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong intervalStart;
+    private final AtomicInteger loggedInInterval = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    ErrorLogRateLimiter(int maxPerInterval, Duration interval) {
+        this(maxPerInterval, interval, System::nanoTime);
+    }
+
+    ErrorLogRateLimiter(int maxPerInterval, Duration interval, LongSupplier nanoClock) {
+        this.maxPerInterval = maxPerInterval;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.intervalStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    //-1 when this error must not be logged, otherwise how many were suppressed since the last logged one
+    long tryAcquire() {
+        var now = nanoClock.getAsLong();
+        var start = intervalStart.get();
+        if (now - start >= intervalNanos && intervalStart.compareAndSet(start, now)) {
+            loggedInInterval.set(0);
+        }
+        if (loggedInInterval.incrementAndGet() > maxPerInterval) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
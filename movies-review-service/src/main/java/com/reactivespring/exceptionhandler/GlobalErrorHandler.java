@@ -1,35 +1,127 @@
 package com.reactivespring.exceptionhandler;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.reactivespring.exception.ReviewDataException;
 import com.reactivespring.exception.ReviewNotFoundException;
+import com.reactivespring.exception.ReviewPreconditionFailedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
-import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Answers {"status":...,"error":...,"message":...}. Expected 4xx errors are only logged at DEBUG, with no stack trace;
+//unexpected errors are logged at ERROR with their stack trace, at most reviews.errors.maxLoggedPerInterval per interval
 @Slf4j
 @Component
+//ahead of WebFlux's ResponseStatusException handler (order 0), which would answer framework 4xx with an empty body
+@Order(-2)
 public class GlobalErrorHandler implements ErrorWebExceptionHandler {
 
+    //{"status":400,"error":"Bad Request","message": per status, encoded once
+    private static final Map<HttpStatus, byte[]> BODY_PREFIXES = new ConcurrentHashMap<>();
+    private static final byte[] QUOTE = {'"'};
+    private static final byte[] QUOTED_MESSAGE_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL_MESSAGE_SUFFIX = "null}".getBytes(StandardCharsets.UTF_8);
+
+    private final ErrorLogRateLimiter errorLogRateLimiter;
+
+    public GlobalErrorHandler(@Value("${reviews.errors.maxLoggedPerInterval:10}") int maxLoggedPerInterval,
+                              @Value("${reviews.errors.logInterval:10s}") Duration logInterval) {
+        this.errorLogRateLimiter = new ErrorLogRateLimiter(maxLoggedPerInterval, logInterval);
+    }
+
     @Override
     public Mono<Void> handle(ServerWebExchange exchange, Throwable e) {
-        log.error("Exception message is: {}", e.getMessage(), e);
-
-        DataBufferFactory dataBufferFactory = exchange.getResponse().bufferFactory();
-        var errorMessage = dataBufferFactory.wrap(e.getMessage().getBytes());
+        var response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(e);
+        }
+        var expectedStatus = expectedStatus(e);
+        if (expectedStatus != null) {
+            var message = expectedMessage(e);
+            log.debug("{} for {} {}: {}", expectedStatus.value(), exchange.getRequest().getMethodValue(), exchange.getRequest().getPath(), message);
+            if (e instanceof ResponseStatusException) {
+                response.getHeaders().addAll(((ResponseStatusException) e).getResponseHeaders());
+            }
+            return writeErrorBody(exchange, expectedStatus, message);
+        }
+        var suppressed = errorLogRateLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.error("Unexpected error for {} {}{}", exchange.getRequest().getMethodValue(), exchange.getRequest().getPath(),
+                    suppressed > 0 ? " (" + suppressed + " more since the last one logged)" : "", e);
+        }
+        //the message of an unexpected error may expose internals, so it stays in the log
+        return writeErrorBody(exchange, HttpStatus.INTERNAL_SERVER_ERROR, null);
+    }
 
+    private HttpStatus expectedStatus(Throwable e) {
         if (e instanceof ReviewDataException) {
-            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
-            return exchange.getResponse().writeWith(Mono.just(errorMessage));
+            return HttpStatus.BAD_REQUEST;
         }
         if (e instanceof ReviewNotFoundException) {
-            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
-            return exchange.getResponse().writeWith(Mono.just(errorMessage));
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof ReviewPreconditionFailedException) {
+            return HttpStatus.PRECONDITION_FAILED;
+        }
+        if (e instanceof DuplicateKeyException || e instanceof OptimisticLockingFailureException) {
+            return HttpStatus.CONFLICT;
         }
-        exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
-        return exchange.getResponse().writeWith(Mono.just(errorMessage));
+        //unknown routes, unsupported methods or media types, unreadable bodies
+        if (e instanceof ResponseStatusException && ((ResponseStatusException) e).getStatus().is4xxClientError()) {
+            return ((ResponseStatusException) e).getStatus();
+        }
+        return null;
+    }
+
+    private String expectedMessage(Throwable e) {
+        if (e instanceof ResponseStatusException) {
+            return ((ResponseStatusException) e).getReason();
+        }
+        //the driver messages name collections, indexes and keys
+        if (e instanceof DuplicateKeyException) {
+            return "Review already exists";
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return "Review has been modified";
+        }
+        return e.getMessage();
+    }
+
+    private Mono<Void> writeErrorBody(ServerWebExchange exchange, HttpStatus status, String message) {
+        var response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        var prefix = BODY_PREFIXES.computeIfAbsent(status, GlobalErrorHandler::encodeBodyPrefix);
+        var encodedMessage = message == null ? null : JsonStringEncoder.getInstance().quoteAsUTF8(message);
+        var length = prefix.length + (encodedMessage == null
+                ? NULL_MESSAGE_SUFFIX.length
+                : QUOTE.length + encodedMessage.length + QUOTED_MESSAGE_SUFFIX.length);
+        var body = response.bufferFactory().allocateBuffer(length).write(prefix);
+        if (encodedMessage == null) {
+            body.write(NULL_MESSAGE_SUFFIX);
+        } else {
+            body.write(QUOTE).write(encodedMessage).write(QUOTED_MESSAGE_SUFFIX);
+        }
+        return response.writeWith(Mono.just(body));
+    }
+
+    private static byte[] encodeBodyPrefix(HttpStatus status) {
+        return ("{\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase() + "\",\"message\":")
+                .getBytes(StandardCharsets.UTF_8);
     }
 }
@@ -1,20 +1,42 @@
 package com.reactivespring.handler;
 
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBulkResult;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.exception.ReviewDataException;
 import com.reactivespring.exception.ReviewNotFoundException;
+import com.reactivespring.exception.ReviewPreconditionFailedException;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewSummaryReactiveRepository;
+import com.reactivespring.support.Batches;
+import com.reactivespring.support.ETags;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 
@@ -25,10 +47,37 @@ public class ReviewHandler {
     @Autowired
     Validator validator;
 
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    @Value("${reviews.page.maxLimit:500}")
+    private int pageMaxLimit;
+
+    @Value("${reviews.stream.bufferSize:256}")
+    private int streamBufferSize;
+
+    @Value("${reviews.bulk.batchSize:500}")
+    private int bulkBatchSize;
+
+    @Value("${reviews.bulk.maxBatchWait:100ms}")
+    private Duration bulkMaxBatchWait;
+
+    @Value("${reviews.bulk.validationThreads:4}")
+    private int bulkValidationParallelism;
+
     private ReviewReactiveRepository reviewReactiveRepository;
 
-    public ReviewHandler(ReviewReactiveRepository reviewReactiveRepository) {
+    private ReviewSummaryReactiveRepository reviewSummaryReactiveRepository;
+
+    private Scheduler reviewValidationScheduler;
+
+    //hot feed of newly added reviews; best effort so one slow subscriber never holds back the others
+    private final Sinks.Many<Review> reviewsSink = Sinks.many().multicast().directBestEffort();
+
+    public ReviewHandler(ReviewReactiveRepository reviewReactiveRepository, ReviewSummaryReactiveRepository reviewSummaryReactiveRepository,
+                         Scheduler reviewValidationScheduler) {
         this.reviewReactiveRepository = reviewReactiveRepository;
+        this.reviewSummaryReactiveRepository = reviewSummaryReactiveRepository;
+        this.reviewValidationScheduler = reviewValidationScheduler;
     }
 
 //    public Mono<ServerResponse> addReview(Mono<Review> reviewMono) {
@@ -39,36 +88,183 @@ public class ReviewHandler {
     public Mono<ServerResponse> addReview(ServerRequest request) {
         return request.bodyToMono(Review.class)
                         .doOnNext(this::validate)
+                        //a create never carries a version: an echoed one would make the save a versioned update
+                        .doOnNext(review -> {
+                            review.setVersion(null);
+                            review.setContentHash(review.hashContent());
+                        })
                         .flatMap(reviewReactiveRepository::save)
+                        .flatMap(savedReview -> reviewSummaryReactiveRepository.addRating(savedReview.getMovieInfoId(), savedReview.getRating())
+                                .thenReturn(savedReview))
+                        .doOnNext(this::publish)
                         .flatMap(ServerResponse.status(HttpStatus.CREATED)::bodyValue);
     }
 
-    private void validate(Review review) {
+    private void publish(Review savedReview) {
+        //concurrent requests may race on the sink, so retry instead of failing the request
+        reviewsSink.emitNext(savedReview, (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+    }
+
+    //pushes reviews as they are added; each subscriber gets its own bounded buffer that drops the oldest when it falls behind
+    public Mono<ServerResponse> streamReviews(ServerRequest request) {
+        var movieInfoId = request.queryParam("movieInfoId");
+        var reviewFlux = reviewsSink.asFlux()
+                .filter(review -> movieInfoId.isEmpty() || movieInfoId.get().equals(review.getMovieInfoId()))
+                .onBackpressureBuffer(streamBufferSize,
+                        droppedReview -> log.debug("stream subscriber too slow, dropped review : {}", droppedReview.getReviewId()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+        return ServerResponse.ok()
+                .contentType(streamingMediaType(request).orElse(MediaType.TEXT_EVENT_STREAM))
+                .body(reviewFlux, Review.class);
+    }
+
+    //package-private for the validation benchmark
+    void validate(Review review) {
+        var errorMessage = validationError(review);
+        if (errorMessage != null) {
+            throw new ReviewDataException(errorMessage);
+        }
+    }
+
+    private String validationError(Review review) {
         var constraintViolations = validator.validate(review);
         if(constraintViolations.size() > 0) {
             log.info("constraintViolations : {}", constraintViolations);
-            var errorMessage = constraintViolations
+            return constraintViolations
                     .stream()
                     .map(ConstraintViolation::getMessage)
                     .sorted()
                     .collect(Collectors.joining(","));
-            throw new ReviewDataException(errorMessage);
         }
+        return null;
+    }
+
+    //streams a JSON array or NDJSON of reviews into batched unordered inserts, answering with one result per line
+    public Mono<ServerResponse> addReviewsBulk(ServerRequest request) {
+        var validatedFlux = request.bodyToFlux(Review.class)
+                .index()
+                .flatMapSequential(indexedReview -> Mono.fromCallable(() -> new BulkItem(indexedReview.getT1(), indexedReview.getT2(), validationError(indexedReview.getT2())))
+                        .subscribeOn(reviewValidationScheduler), bulkValidationParallelism);
+        var resultFlux = Batches.onDemand(validatedFlux, bulkBatchSize, bulkMaxBatchWait)
+                .concatMap(this::insertBatch);
+        return ServerResponse.ok()
+                .contentType(streamingMediaType(request).orElse(MediaType.APPLICATION_NDJSON))
+                .body(resultFlux, ReviewBulkResult.class);
+    }
+
+    private Flux<ReviewBulkResult> insertBatch(List<BulkItem> batch) {
+        var toInsert = batch.stream()
+                .filter(item -> item.error == null)
+                .collect(Collectors.toList());
+        var reviews = toInsert.stream()
+                .map(item -> item.review)
+                .collect(Collectors.toList());
+        return reviewReactiveRepository.insertUnordered(reviews)
+                .flatMapMany(writeErrors -> {
+                    var inserted = new ArrayList<Review>(toInsert.size());
+                    var results = new ArrayList<ReviewBulkResult>(batch.size());
+                    var insertPosition = 0;
+                    for (var item : batch) {
+                        if (item.error != null) {
+                            results.add(ReviewBulkResult.invalid(item.index, item.review.getReviewId(), item.error));
+                            continue;
+                        }
+                        var writeError = writeErrors.get(insertPosition++);
+                        if (writeError != null) {
+                            results.add(ReviewBulkResult.failed(item.index, item.review.getReviewId(), writeError));
+                        } else {
+                            inserted.add(item.review);
+                            results.add(ReviewBulkResult.created(item.index, item.review.getReviewId()));
+                        }
+                    }
+                    return Flux.fromIterable(inserted.stream()
+                                    .filter(review -> review.getMovieInfoId() != null)
+                                    .collect(Collectors.groupingBy(Review::getMovieInfoId, Collectors.mapping(Review::getRating, Collectors.toList())))
+                                    .entrySet())
+                            .concatMap(ratingsByMovie -> reviewSummaryReactiveRepository.addRatings(ratingsByMovie.getKey(), ratingsByMovie.getValue()))
+                            .thenMany(Flux.fromIterable(inserted).doOnNext(this::publish).thenMany(Flux.fromIterable(results)));
+                });
+    }
 
+    private static class BulkItem {
+        private final long index;
+        private final Review review;
+        private final String error;
 
+        private BulkItem(long index, Review review, String error) {
+            this.index = index;
+            this.review = review;
+            this.error = error;
+        }
     }
 
     public Mono<ServerResponse> getAllReviews(ServerRequest request) {
         var movieInfoId = request.queryParam("movieInfoId");
         if (movieInfoId.isPresent()) {
-            return buildOkServerResponse(reviewReactiveRepository.getReviewsByMovieInfoId(movieInfoId.get()));
+            return buildOkServerResponse(request, reviewReactiveRepository.getReviewsByMovieInfoId(movieInfoId.get()));
         }
-        return buildOkServerResponse(reviewReactiveRepository.findAll());
+        var movieInfoIds = request.queryParam("movieInfoIds");
+        if (movieInfoIds.isPresent()) {
+            return getReviewsByMovieInfoIds(request, movieInfoIds.get());
+        }
+        var limit = request.queryParam("limit");
+        if (limit.isPresent()) {
+            return getReviewsPage(request, limit.get(), request.queryParam("after").orElse(null));
+        }
+        return buildOkServerResponse(request, reviewReactiveRepository.findAll());
+    }
+
+    //keyset page: resumes after the given _id instead of skipping, so every page costs the same
+    private Mono<ServerResponse> getReviewsPage(ServerRequest request, String limit, String afterReviewId) {
+        int pageSize;
+        try {
+            pageSize = Math.max(1, Math.min(Integer.parseInt(limit), pageMaxLimit));
+        } catch (NumberFormatException e) {
+            return Mono.error(new ReviewDataException("review.limit : must be a number"));
+        }
+        //one extra document tells us whether there is a next page
+        var pageable = PageRequest.of(0, pageSize + 1, Sort.by("reviewId"));
+        var reviewFlux = afterReviewId == null
+                ? reviewReactiveRepository.findAllBy(pageable)
+                : reviewReactiveRepository.findPageAfter(afterReviewId, pageable);
+        return reviewFlux.collectList()
+                .flatMap(reviews -> {
+                    if (reviews.size() <= pageSize) {
+                        return ServerResponse.ok().bodyValue(reviews);
+                    }
+                    var page = reviews.subList(0, pageSize);
+                    var nextLink = UriComponentsBuilder.fromPath(request.path())
+                            .queryParam("limit", pageSize)
+                            .queryParam("after", page.get(pageSize - 1).getReviewId())
+                            .encode()
+                            .toUriString();
+                    return ServerResponse.ok()
+                            .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"")
+                            .bodyValue(page);
+                });
+    }
+
+    //one $in query for many movies, streamed in movieInfoId order so reviews of the same movie arrive together
+    private Mono<ServerResponse> getReviewsByMovieInfoIds(ServerRequest request, String movieInfoIds) {
+        var ids = Arrays.stream(movieInfoIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return buildOkServerResponse(request, Flux.empty());
+        }
+        return buildOkServerResponse(request, reviewReactiveRepository.getReviewsByMovieInfoIdInOrderByMovieInfoId(ids));
+    }
+
+    //the ETag lets WebFlux answer If-None-Match with 304 and no body
+    public Mono<ServerResponse> getReviewById(String reviewId) {
+        return reviewReactiveRepository.findById(reviewId)
+                .switchIfEmpty(Mono.error(() -> new ReviewNotFoundException("Review not found for Review ID: " + reviewId)))
+                .flatMap(this::okWithETag);
     }
 
     public Mono<ServerResponse> getReviewByMovieId(String movieInfoId) {
-        System.out.println("\nMovieID: " + movieInfoId);
-        var allReviewsByMovieId = reviewReactiveRepository.findAll().filter(review -> review.getMovieInfoId().equals(movieInfoId));
+        var allReviewsByMovieId = reviewReactiveRepository.getReviewsByMovieInfoId(movieInfoId);
         //if empty return 404? or just empty flux
         return buildOkServerResponse(allReviewsByMovieId);
     };
@@ -76,29 +272,94 @@ public class ReviewHandler {
     private Mono<ServerResponse> buildOkServerResponse(Flux<Review> reviewFlux) {
         return ServerResponse.ok().body(reviewFlux, Review.class);
     }
-    public Mono<ServerResponse> updateReviewById(String reviewId, Mono<Review> updatedReview) {
 
-        var existingReview = reviewReactiveRepository.findById(reviewId)
-                .switchIfEmpty(Mono.error(new ReviewNotFoundException("Review not found for Review ID: " + reviewId)));
+    //JSON array unless the client explicitly asks for NDJSON or SSE, which flush one review at a time
+    private Mono<ServerResponse> buildOkServerResponse(ServerRequest request, Flux<Review> reviewFlux) {
+        var streamingMediaType = streamingMediaType(request);
+        if (streamingMediaType.isPresent()) {
+            return ServerResponse.ok()
+                    .contentType(streamingMediaType.get())
+                    .body(reviewFlux, Review.class);
+        }
+        return buildOkServerResponse(reviewFlux);
+    }
 
+    private Optional<MediaType> streamingMediaType(ServerRequest request) {
+        var acceptedMediaTypes = new ArrayList<>(request.headers().accept());
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+        return acceptedMediaTypes.stream()
+                .filter(acceptedMediaType -> STREAMING_MEDIA_TYPES.stream().anyMatch(acceptedMediaType::equalsTypeAndSubtype))
+                .findFirst()
+                .map(acceptedMediaType -> new MediaType(acceptedMediaType.getType(), acceptedMediaType.getSubtype()));
+    }
+    //one findAndModify, conditional on the stored content hash when If-Match carries a previous ETag;
+    //only a miss reads the review, to tell a missing one from a changed one
+    public Mono<ServerResponse> updateReviewById(String reviewId, Mono<Review> updatedReview, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return updateReview(reviewId, updatedReview, null);
+        }
+        var expectedETag = ETags.parseStrong(ifMatch);
+        if (expectedETag == null) {
+            return Mono.error(new ReviewPreconditionFailedException("Review has been modified for Review ID: " + reviewId));
+        }
+        return updateReview(reviewId, updatedReview, expectedETag);
+    }
+
+    private Mono<ServerResponse> updateReview(String reviewId, Mono<Review> updatedReview, String expectedETag) {
 //        validate(updatedReview.block());
 
-        return existingReview.flatMap(review -> updatedReview
-                .map(requestReview -> {
-                    review.setMovieInfoId(requestReview.getMovieInfoId());
-                    review.setComment(requestReview.getComment());
-                    review.setRating(requestReview.getRating());
-                    return review;
-                })
-                .flatMap(reviewReactiveRepository::save)
-                        .flatMap(savedReview -> ServerResponse.ok().bodyValue(savedReview))
-        );
+        return updatedReview.flatMap(requestReview -> reviewReactiveRepository.findAndUpdate(reviewId, requestReview, expectedETag)
+                .switchIfEmpty(Mono.defer(() -> updateMissed(reviewId, requestReview, expectedETag)))
+                .flatMap(previousReview -> {
+                    var previousVersion = previousReview.getVersion() == null ? 0L : previousReview.getVersion();
+                    var savedReview = new Review(reviewId, requestReview.getMovieInfoId(), requestReview.getComment(), requestReview.getRating(),
+                            previousVersion + 1, requestReview.hashContent());
+                    return moveRating(previousReview.getMovieInfoId(), previousReview.getRating(), savedReview)
+                            .thenReturn(savedReview);
+                }))
+                .flatMap(this::okWithETag);
+    }
+
+    //a review written before content hashes were stored still matches the hash it would have, once
+    private Mono<Review> updateMissed(String reviewId, Review requestReview, String expectedETag) {
+        var notFound = Mono.<Review>error(new ReviewNotFoundException("Review not found for Review ID: " + reviewId));
+        if (expectedETag == null) {
+            return notFound;
+        }
+        var preconditionFailed = Mono.<Review>error(new ReviewPreconditionFailedException("Review has been modified for Review ID: " + reviewId));
+        return reviewReactiveRepository.findById(reviewId)
+                .flatMap(existingReview -> existingReview.getContentHash() == null && existingReview.hashContent().equals(expectedETag)
+                        ? reviewReactiveRepository.findAndUpdateUnhashed(reviewId, requestReview, existingReview.getVersion()).switchIfEmpty(preconditionFailed)
+                        : preconditionFailed)
+                .switchIfEmpty(notFound);
+    }
+
+    private Mono<ServerResponse> okWithETag(Review review) {
+        return ServerResponse.ok()
+                .eTag(review.eTag())
+                .bodyValue(review);
+    }
+
+    private Mono<Void> moveRating(String previousMovieInfoId, Double previousRating, Review savedReview) {
+        if (Objects.equals(previousMovieInfoId, savedReview.getMovieInfoId()) && Objects.equals(previousRating, savedReview.getRating())) {
+            return Mono.empty();
+        }
+        return reviewSummaryReactiveRepository.removeRating(previousMovieInfoId, previousRating)
+                .then(reviewSummaryReactiveRepository.addRating(savedReview.getMovieInfoId(), savedReview.getRating()));
     }
 
     public Mono<ServerResponse> deleteReviewById(String reviewId) {
 //        return ServerResponse.ok().body(reviewReactiveRepository.deleteById(reviewId), Review.class);  //returns a mono void
-        return reviewReactiveRepository.findById(reviewId)
-                .flatMap(review -> reviewReactiveRepository.deleteById(reviewId)
+        return reviewReactiveRepository.findAndDelete(reviewId)
+                .switchIfEmpty(Mono.error(() -> new ReviewNotFoundException("Review not found for Review ID: " + reviewId)))
+                .flatMap(review -> reviewSummaryReactiveRepository.removeRating(review.getMovieInfoId(), review.getRating())
                         .then(ServerResponse.noContent().build()));
     }
+
+    //O(1) read of the running totals, complete since ReviewSummaryBackfill; no summary means no rated reviews
+    public Mono<ServerResponse> getReviewSummary(String movieInfoId) {
+        return reviewSummaryReactiveRepository.findById(movieInfoId)
+                .defaultIfEmpty(new ReviewSummary(movieInfoId))
+                .flatMap(ServerResponse.ok()::bodyValue);
+    }
 }
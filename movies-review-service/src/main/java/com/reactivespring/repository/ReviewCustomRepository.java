@@ -0,0 +1,28 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReviewCustomRepository {
+
+    //inserts without stopping at the first failure; returns the error message per failed position of the list
+    Mono<Map<Integer, String>> insertUnordered(List<Review> reviews);
+
+    //atomic $set of the editable fields and their hash; returns the review as it was before, or empty if the id or,
+    //when one is given, the expected content hash did not match
+    Mono<Review> findAndUpdate(String reviewId, Review update, String expectedContentHash);
+
+    //the same for a review written before content hashes were stored: only while it still has none, at the version that was read
+    Mono<Review> findAndUpdateUnhashed(String reviewId, Review update, Long expectedVersion);
+
+    //the keyset page after the given review id, whether the ids are strings, ObjectIds or both
+    Flux<Review> findPageAfter(String reviewId, Pageable pageable);
+
+    //deletes in one round trip and returns the deleted review, or empty if there was none
+    Mono<Review> findAndDelete(String reviewId);
+}
@@ -0,0 +1,103 @@
+package com.reactivespring.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reactivespring.domain.Review;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+//ReactiveMongoTemplate only does ordered inserts, so the batch goes straight to the driver collection
+public class ReviewCustomRepositoryImpl implements ReviewCustomRepository {
+
+    //the $type number; the alias form of Criteria.type renders as an array, which needs Mongo 3.6
+    private static final int BSON_OBJECT_ID = 7;
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewCustomRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> insertUnordered(List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        var documents = reviews.stream()
+                .map(review -> {
+                    //assigned up front so the caller can report the id of every review it created
+                    if (review.getReviewId() == null) {
+                        review.setReviewId(new ObjectId().toHexString());
+                    }
+                    review.setContentHash(review.hashContent());
+                    var document = new Document();
+                    reactiveMongoTemplate.getConverter().write(review, document);
+                    return document;
+                })
+                .collect(Collectors.toList());
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(Review.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(insertManyResult -> Map.<Integer, String>of())
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(e.getWriteErrors().stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage))));
+    }
+
+    @Override
+    public Mono<Review> findAndUpdate(String reviewId, Review update, String expectedContentHash) {
+        var criteria = where("reviewId").is(reviewId);
+        if (expectedContentHash != null) {
+            criteria = criteria.and("contentHash").is(expectedContentHash);
+        }
+        return findAndUpdate(criteria, update);
+    }
+
+    @Override
+    public Mono<Review> findAndUpdateUnhashed(String reviewId, Review update, Long expectedVersion) {
+        return findAndUpdate(where("reviewId").is(reviewId).and("contentHash").is(null).and("version").is(expectedVersion), update);
+    }
+
+    private Mono<Review> findAndUpdate(Criteria criteria, Review update) {
+        var changes = new Update()
+                .set("movieInfoId", update.getMovieInfoId())
+                .set("comment", update.getComment())
+                .set("rating", update.getRating())
+                .set("contentHash", update.hashContent())
+                .inc("version", 1);
+        return reactiveMongoTemplate.findAndModify(query(criteria), changes, FindAndModifyOptions.options().returnNew(false), Review.class);
+    }
+
+    @Override
+    public Flux<Review> findPageAfter(String reviewId, Pageable pageable) {
+        return reactiveMongoTemplate.find(query(reviewIdAfter(reviewId)).with(pageable), Review.class);
+    }
+
+    //$gt only compares within one BSON type, and ObjectIds sort after strings, so a string cursor also lets every ObjectId through
+    private static Criteria reviewIdAfter(String reviewId) {
+        if (ObjectId.isValid(reviewId)) {
+            return where("reviewId").gt(new ObjectId(reviewId));
+        }
+        return new Criteria().orOperator(
+                where("reviewId").gt(reviewId),
+                where("reviewId").type(BSON_OBJECT_ID));
+    }
+
+    @Override
+    public Mono<Review> findAndDelete(String reviewId) {
+        return reactiveMongoTemplate.findAndRemove(query(where("reviewId").is(reviewId)), Review.class);
+    }
+}
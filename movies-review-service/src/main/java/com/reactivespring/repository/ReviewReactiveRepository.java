@@ -1,10 +1,17 @@
 package com.reactivespring.repository;
 
 import com.reactivespring.domain.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 
-public interface ReviewReactiveRepository extends ReactiveMongoRepository<Review, String> {
+import java.util.Collection;
+
+public interface ReviewReactiveRepository extends ReactiveMongoRepository<Review, String>, ReviewCustomRepository {
 
     Flux<Review> getReviewsByMovieInfoId(String movieInfoId);
+
+    Flux<Review> getReviewsByMovieInfoIdInOrderByMovieInfoId(Collection<String> movieInfoIds);
+
+    Flux<Review> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,18 @@
+package com.reactivespring.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReviewSummaryCustomRepository {
+
+    Mono<Void> addRating(String movieInfoId, Double rating);
+
+    Mono<Void> addRatings(String movieInfoId, Collection<Double> ratings);
+
+    Mono<Void> removeRating(String movieInfoId, Double rating);
+
+    //overwrites the summary of every reviewed movie with totals recomputed from the reviews collection, answering how many
+    //were written; an $inc landing between the aggregation and the $set of its movie is lost, so run it while writes are quiet
+    Mono<Long> rebuildAll();
+}
@@ -0,0 +1,117 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewSummary;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregationOptions;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+//$inc in place so concurrent reviews of the same movie never overwrite each other's totals
+public class ReviewSummaryCustomRepositoryImpl implements ReviewSummaryCustomRepository {
+
+    private static final int REBUILD_CONCURRENCY = 16;
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewSummaryCustomRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> addRating(String movieInfoId, Double rating) {
+        if (movieInfoId == null || rating == null) {
+            return Mono.empty();
+        }
+        return reactiveMongoTemplate.upsert(query(where("movieInfoId").is(movieInfoId)), ratingDelta(rating, 1), ReviewSummary.class)
+                .then();
+    }
+
+    //one $inc for a whole batch of ratings of the same movie
+    @Override
+    public Mono<Void> addRatings(String movieInfoId, Collection<Double> ratings) {
+        var update = new Update();
+        var count = 0;
+        var ratingSum = 0.0;
+        var histogram = new HashMap<String, Integer>();
+        for (var rating : ratings) {
+            if (rating != null) {
+                count++;
+                ratingSum += rating;
+                histogram.merge(ReviewSummary.histogramBucket(rating), 1, Integer::sum);
+            }
+        }
+        if (movieInfoId == null || count == 0) {
+            return Mono.empty();
+        }
+        update.inc("count", count).inc("ratingSum", ratingSum);
+        histogram.forEach((bucket, bucketCount) -> update.inc("histogram." + bucket, bucketCount));
+        return reactiveMongoTemplate.upsert(query(where("movieInfoId").is(movieInfoId)), update, ReviewSummary.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> removeRating(String movieInfoId, Double rating) {
+        if (movieInfoId == null || rating == null) {
+            return Mono.empty();
+        }
+        return reactiveMongoTemplate.updateFirst(query(where("movieInfoId").is(movieInfoId)), ratingDelta(rating, -1), ReviewSummary.class)
+                .then();
+    }
+
+    //one row per movie and star, sorted by movie so each summary is assembled from consecutive rows, then one $set upsert
+    //per movie: the live collection is never emptied, so readers and the $inc of other instances keep working throughout
+    @Override
+    public Mono<Long> rebuildAll() {
+        var aggregation = newAggregation(Review.class,
+                match(where("movieInfoId").ne(null).and("rating").ne(null)),
+                project("movieInfoId", "rating").and(ArithmeticOperators.Floor.floorValueOf("rating")).as("star"),
+                group("movieInfoId", "star").count().as("count").sum("rating").as("ratingSum"),
+                sort(Sort.Direction.ASC, "movieInfoId"))
+                .withOptions(newAggregationOptions().allowDiskUse(true).build());
+        return reactiveMongoTemplate.aggregate(aggregation, Document.class)
+                .bufferUntilChanged(starRow -> starRow.get("_id", Document.class).getString("movieInfoId"))
+                .map(this::toReviewSummary)
+                .flatMap(reviewSummary -> reactiveMongoTemplate.upsert(query(where("movieInfoId").is(reviewSummary.getMovieInfoId())),
+                        new Update()
+                                .set("count", reviewSummary.getCount())
+                                .set("ratingSum", reviewSummary.getRatingSum())
+                                .set("histogram", reviewSummary.getHistogram()),
+                        ReviewSummary.class), REBUILD_CONCURRENCY)
+                .count();
+    }
+
+    private ReviewSummary toReviewSummary(List<Document> starRows) {
+        var reviewSummary = new ReviewSummary(starRows.get(0).get("_id", Document.class).getString("movieInfoId"));
+        for (var starRow : starRows) {
+            var count = starRow.get("count", Number.class).longValue();
+            var star = starRow.get("_id", Document.class).get("star", Number.class).doubleValue();
+            reviewSummary.setCount(reviewSummary.getCount() + count);
+            reviewSummary.setRatingSum(reviewSummary.getRatingSum() + starRow.get("ratingSum", Number.class).doubleValue());
+            reviewSummary.getHistogram().merge(ReviewSummary.histogramBucket(star), count, Long::sum);
+        }
+        return reviewSummary;
+    }
+
+    private Update ratingDelta(Double rating, int sign) {
+        return new Update()
+                .inc("count", sign)
+                .inc("ratingSum", sign * rating)
+                .inc("histogram." + ReviewSummary.histogramBucket(rating), sign);
+    }
+}
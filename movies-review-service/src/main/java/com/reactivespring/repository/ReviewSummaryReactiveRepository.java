@@ -0,0 +1,7 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.ReviewSummary;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReviewSummaryReactiveRepository extends ReactiveMongoRepository<ReviewSummary, String>, ReviewSummaryCustomRepository {
+}
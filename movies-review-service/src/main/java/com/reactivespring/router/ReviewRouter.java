@@ -4,6 +4,7 @@ import com.reactivespring.domain.Review;
 import com.reactivespring.handler.ReviewHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
@@ -21,9 +22,13 @@ public class ReviewRouter {
         return route()
                 .nest(path("/v1/reviews"), builder -> {
                 builder.POST("", request -> reviewHandler.addReview(request))
-                        .PUT("/{reviewId}", request -> reviewHandler.updateReviewById(request.pathVariable("reviewId"), request.bodyToMono(Review.class)))
+                        .POST("/bulk", request -> reviewHandler.addReviewsBulk(request))
+                        .PUT("/{reviewId}", request -> reviewHandler.updateReviewById(request.pathVariable("reviewId"), request.bodyToMono(Review.class), request.headers().firstHeader(HttpHeaders.IF_MATCH)))
                         .DELETE("/{reviewId}", request -> reviewHandler.deleteReviewById(request.pathVariable("reviewId")))
                        .GET("", request -> reviewHandler.getAllReviews(request))
+                       .GET("/stream", request -> reviewHandler.streamReviews(request))
+                       .GET("/summary/{movieInfoId}", request -> reviewHandler.getReviewSummary(request.pathVariable("movieInfoId")))
+                       .GET("/{reviewId}", request -> reviewHandler.getReviewById(request.pathVariable("reviewId")))
 //                       .GET("/{movieInfoId}", request -> reviewHandler.getReviewByMovieId(request.pathVariable("movieInfoId")))  // a path variable implementation is more suited for a get by reviewId
                 ;
 
@@ -0,0 +1,95 @@
+package com.reactivespring.tracing;
+
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+//Wraps a driver MongoDatabase, the MongoCollections it hands out and the Publishers they return.
+//Subscribing to one of those Publishers is one round trip to Mongo, so that is where the CLIENT span
+//is started, as a child of the trace context the operation was subscribed with
+class MongoSpanInvocationHandler implements InvocationHandler {
+
+    private final Object delegate;
+    private final Tracer tracer;
+    private final TraceContext parent;
+    private final String database;
+    private final String collection;
+    private final String command;
+
+    private MongoSpanInvocationHandler(Object delegate, Tracer tracer, TraceContext parent, String database,
+                                       String collection, String command) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+        this.parent = parent;
+        this.database = database;
+        this.collection = collection;
+        this.command = command;
+    }
+
+    static MongoDatabase database(MongoDatabase database, Tracer tracer, TraceContext parent) {
+        return proxy(MongoDatabase.class, new MongoSpanInvocationHandler(database, tracer, parent, database.getName(), null, null));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (command != null && method.getName().equals("subscribe") && args != null && args.length == 1) {
+            subscribe((Subscriber<?>) args[0]);
+            return null;
+        }
+        var result = invokeDelegate(method, args);
+        if (result instanceof MongoCollection) {
+            var mongoCollection = (MongoCollection<?>) result;
+            return proxy(MongoCollection.class, new MongoSpanInvocationHandler(mongoCollection, tracer, parent, database,
+                    mongoCollection.getNamespace().getCollectionName(), null));
+        }
+        if (result instanceof MongoDatabase) {
+            return database((MongoDatabase) result, tracer, parent);
+        }
+        //builder calls on a FindPublisher/AggregatePublisher keep the name of the command that created it
+        if (result instanceof Publisher && method.getReturnType().isInterface()) {
+            return proxy(method.getReturnType(), new MongoSpanInvocationHandler(result, tracer, parent, database, collection,
+                    command != null ? command : method.getName()));
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void subscribe(Subscriber subscriber) {
+        var span = tracer.spanBuilder()
+                .setParent(parent)
+                .name(command)
+                .kind(Span.Kind.CLIENT)
+                .remoteServiceName("mongodb-" + database)
+                .tag("mongodb.collection", collection == null ? "" : collection)
+                .start();
+        Flux.from((Publisher) delegate)
+                .doOnError(e -> span.error((Throwable) e))
+                //ended before the terminal signal reaches the caller, so the span is reported by the time the operation completes
+                .doOnTerminate(span::end)
+                .doOnCancel(span::end)
+                .subscribe(subscriber);
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,75 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReviewReactiveRepositoryIntgTest {
+
+    @Autowired
+    ReviewReactiveRepository reviewReactiveRepository;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        var reviewsList = List.of(
+                new Review(null, "1", "Awesome Movie", 9.0),
+                new Review(null, "1", "Great Movie", 9.0),
+                new Review(null, "2", "Excellent Movie", 8.0));
+        reviewReactiveRepository.saveAll(reviewsList)
+                .blockLast();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewReactiveRepository.deleteAll()
+                .block();
+    }
+
+    @Test
+    void testIndexesCreatedOnStartup() {
+        var indexNames = reactiveMongoTemplate.indexOps(Review.class)
+                .getIndexInfo()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet())
+                .block();
+
+        assertNotNull(indexNames);
+        assertTrue(indexNames.contains("movieInfoId"));
+        assertTrue(indexNames.contains("movieInfoId_rating"));
+    }
+
+    @Test
+    void testGetReviewsByMovieInfoIdUsesIndex() {
+        StepVerifier.create(reviewReactiveRepository.getReviewsByMovieInfoId("1"))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        var queryPlan = reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(Review.class))
+                .flatMap(collection -> Mono.from(collection.find(new Document("movieInfoId", "1")).explain()))
+                .block();
+
+        assertNotNull(queryPlan);
+        var winningPlan = queryPlan.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+        assertTrue(winningPlan.contains("IXSCAN"), winningPlan);
+        assertFalse(winningPlan.contains("COLLSCAN"), winningPlan);
+    }
+}
@@ -1,18 +1,28 @@
 package com.reactivespring.routes;
 
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBulkResult;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.handler.ReviewHandler;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewSummaryReactiveRepository;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +34,9 @@ public class ReviewsIntgTest {
     @Autowired
     ReviewReactiveRepository reviewReactiveRepository;
 
+    @Autowired
+    ReviewSummaryReactiveRepository reviewSummaryReactiveRepository;
+
     @Autowired
     ReviewHandler reviewHandler;
 
@@ -49,6 +62,123 @@ public class ReviewsIntgTest {
     void tearDown() {
         reviewReactiveRepository.deleteAll()
                 .block();
+        reviewSummaryReactiveRepository.deleteAll()
+                .block();
+    }
+
+    @Test
+    void testShouldAddReviewsBulk() {
+        var reviewsList = List.of(
+                new Review(null, "5", "Awesome Movie", 9.0),
+                new Review(null, "5", "Negative", -1.0),
+                //already stored in setUp
+                new Review("abc123", "5", "Duplicate", 7.0),
+                new Review(null, "5", "Great Movie", 8.0));
+
+        var results = webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(reviewsList)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(ReviewBulkResult.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertNotNull(results);
+        assertEquals(List.of(ReviewBulkResult.Status.CREATED, ReviewBulkResult.Status.INVALID, ReviewBulkResult.Status.FAILED, ReviewBulkResult.Status.CREATED),
+                results.stream().map(ReviewBulkResult::getStatus).collect(Collectors.toList()));
+        getsAllReviews(INITIAL_REVIEWS_COUNT + 2);
+        assertsReviewSummary("5", 2, 8.5);
+    }
+
+    @Test
+    void testShouldMaintainReviewSummary() {
+        //reviews saved in setUp bypass the handler, like reviews written before the summaries existed
+        reviewSummaryReactiveRepository.rebuildAll()
+                .block();
+        assertsReviewSummary("1", 2, 9.0);
+
+        var savedReview = webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(new Review(null, "1", "Meh", 6.0))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(Review.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(savedReview);
+        assertsReviewSummary("1", 3, 8.0);
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", savedReview.getReviewId())
+                .bodyValue(new Review(null, "1", "Grew on me", 9.0))
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+        assertsReviewSummary("1", 3, 9.0);
+
+        webTestClient
+                .delete()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", savedReview.getReviewId())
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+        assertsReviewSummary("1", 2, 9.0);
+    }
+
+    @Test
+    void testShouldCountExistingReviewsWhenChangedBeforeFirstSummaryRead() {
+        reviewSummaryReactiveRepository.rebuildAll()
+                .block();
+
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(new Review(null, "1", "Meh", 6.0))
+                .exchange()
+                .expectStatus()
+                .isCreated();
+        assertsReviewSummary("1", 3, 8.0);
+
+        webTestClient
+                .delete()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", "abc123")
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+        assertsReviewSummary("3", 0, 0.0);
+    }
+
+    @Test
+    void testShouldOverwriteStaleReviewSummariesOnRebuild() {
+        var staleSummary = new ReviewSummary("1");
+        staleSummary.addRating(1.0);
+        reviewSummaryReactiveRepository.save(staleSummary)
+                .block();
+
+        //movies "1", "2" and "3" have reviews
+        assertEquals(3L, reviewSummaryReactiveRepository.rebuildAll().block());
+        assertsReviewSummary("1", 2, 9.0);
+        assertsReviewSummary("3", 1, 7.0);
+    }
+
+    private void assertsReviewSummary(String movieInfoId, int count, double mean) {
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/summary/{movieInfoId}", movieInfoId)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(count)
+                .jsonPath("$.mean").isEqualTo(mean);
     }
 
     @Test
@@ -72,6 +202,38 @@ public class ReviewsIntgTest {
                 });
     }
 
+    @Test
+    void testShouldAddReviewWithEchoedVersion() {
+        //e.g. the body of a previous GET, posted back under a new id
+        var review = new Review("test_SARWEV1", "1", "I Cried", 1.0, 3L);
+
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(Review.class)
+                .consumeWith(reviewEntityExchangeResult -> assertEquals(0L, reviewEntityExchangeResult.getResponseBody().getVersion()));
+    }
+
+    @Test
+    void testFailToAddReview_existingReviewId() {
+        //saved in setUp
+        var review = new Review("abc123", "1", "I Cried", 1.0);
+
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class)
+                .isEqualTo("{\"status\":409,\"error\":\"Conflict\",\"message\":\"Review already exists\"}");
+    }
+
     @Test
     void testShouldGetAllReviews() {
         getsAllReviews(INITIAL_REVIEWS_COUNT);
@@ -132,6 +294,90 @@ public class ReviewsIntgTest {
                 });
     }
 
+    @Test
+    void testShouldGetReviewsByMovieInfoIds() {
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "?movieInfoIds=3,1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(Review.class)
+                .hasSize(3)
+                .consumeWith(reviewEntityExchangeResult -> {
+                    var queriedReviews = reviewEntityExchangeResult.getResponseBody();
+                    assertNotNull(queriedReviews);
+                    assertEquals(List.of("1", "1", "3"), queriedReviews.stream()
+                            .map(Review::getMovieInfoId)
+                            .collect(Collectors.toList()));
+                });
+    }
+
+    @Test
+    void testShouldGetReviewsPages() {
+        var firstPage = webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "?limit=3")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(Review.class)
+                .hasSize(3)
+                .returnResult();
+
+        var nextLink = firstPage.getResponseHeaders().getFirst("Link");
+        assertNotNull(nextLink);
+        var nextUri = nextLink.substring(1, nextLink.indexOf('>'));
+
+        webTestClient
+                .get()
+                .uri(nextUri)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .doesNotExist("Link")
+                .expectBodyList(Review.class)
+                .hasSize(INITIAL_REVIEWS_COUNT - 3);
+    }
+
+    @Test
+    void testShouldGetReviewsPagesEndingOnStringId() {
+        //"abc123" sorts before the generated ObjectIds, so the first page is just "abc123"
+        var reviewIds = getAllReviewsPages(1);
+
+        assertEquals("abc123", reviewIds.get(0));
+        assertEquals(INITIAL_REVIEWS_COUNT, Set.copyOf(reviewIds).size());
+    }
+
+    @Test
+    void testShouldGetReviewsPagesEndingOnObjectId() {
+        //the first page ends on the first generated ObjectId
+        var reviewIds = getAllReviewsPages(2);
+
+        assertTrue(ObjectId.isValid(reviewIds.get(1)));
+        assertEquals(INITIAL_REVIEWS_COUNT, Set.copyOf(reviewIds).size());
+    }
+
+    private List<String> getAllReviewsPages(int limit) {
+        var reviewIds = new ArrayList<String>();
+        var uri = MOVIE_REVIEW_URL + "?limit=" + limit;
+        while (uri != null) {
+            var page = webTestClient
+                    .get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus()
+                    .is2xxSuccessful()
+                    .expectBodyList(Review.class)
+                    .returnResult();
+            page.getResponseBody().forEach(review -> reviewIds.add(review.getReviewId()));
+            var nextLink = page.getResponseHeaders().getFirst("Link");
+            uri = nextLink == null ? null : nextLink.substring(1, nextLink.indexOf('>'));
+        }
+        return reviewIds;
+    }
+
     @Test
     void testShouldUpdateReviewByReviewId() {
         var reviewId = "abc123";
@@ -152,6 +398,95 @@ public class ReviewsIntgTest {
                 });
     }
 
+    @Test
+    void testShouldRejectStaleIfMatchOnUpdate() {
+        var reviewId = "abc123";
+        var eTag = webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Review.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(eTag);
+
+        var updatedETag = webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new Review(null, "3", "First Writer", 6.0))
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(Review.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotEquals(eTag, updatedETag);
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new Review(null, "3", "Second Writer", 5.0))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        var review = reviewReactiveRepository.findById(reviewId).block();
+        assertNotNull(review);
+        assertEquals("First Writer", review.getComment());
+    }
+
+    @Test
+    void testShouldUpdateAddedReviewWithIfMatch() {
+        var addedReview = webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(new Review(null, "5", "Awesome Movie", 9.0))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(Review.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(addedReview);
+        var reviewId = addedReview.getReviewId();
+
+        var eTag = webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Review.class)
+                .getResponseHeaders()
+                .getETag();
+
+        var updatedETag = webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new Review(null, "5", "Still Awesome", 8.0))
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(Review.class)
+                .getResponseHeaders()
+                .getETag();
+        assertEquals("\"" + reviewReactiveRepository.findById(reviewId).block().getContentHash() + "\"", updatedETag);
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", "nonya")
+                .header(HttpHeaders.IF_MATCH, updatedETag)
+                .bodyValue(new Review(null, "5", "Still Awesome", 8.0))
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
     @Test
     void testFailToUpdateReviewByReviewId_validate_movieInfoId() {
         var reviewId = "4";
@@ -164,7 +499,7 @@ public class ReviewsIntgTest {
                 .expectStatus()
                 .isNotFound()
                 .expectBody(String.class)
-                .isEqualTo("Review not found for Review ID: " + reviewId);
+                .isEqualTo("{\"status\":404,\"error\":\"Not Found\",\"message\":\"Review not found for Review ID: " + reviewId + "\"}");
 
     }
 
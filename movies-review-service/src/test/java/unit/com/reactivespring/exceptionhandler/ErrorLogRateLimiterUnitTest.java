@@ -0,0 +1,30 @@
+package com.reactivespring.exceptionhandler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ErrorLogRateLimiterUnitTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final ErrorLogRateLimiter errorLogRateLimiter = new ErrorLogRateLimiter(2, Duration.ofSeconds(10), nanoTime::get);
+
+    @Test
+    void suppressesErrorsOverTheLimitUntilTheNextInterval() {
+        assertEquals(0, errorLogRateLimiter.tryAcquire());
+        assertEquals(0, errorLogRateLimiter.tryAcquire());
+        assertEquals(-1, errorLogRateLimiter.tryAcquire());
+        assertEquals(-1, errorLogRateLimiter.tryAcquire());
+
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        //the first one logged in the new interval reports what was suppressed
+        assertEquals(2, errorLogRateLimiter.tryAcquire());
+        assertEquals(0, errorLogRateLimiter.tryAcquire());
+        assertEquals(-1, errorLogRateLimiter.tryAcquire());
+    }
+}
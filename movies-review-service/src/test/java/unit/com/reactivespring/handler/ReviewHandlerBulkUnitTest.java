@@ -0,0 +1,73 @@
+package com.reactivespring.handler;
+
+import com.reactivespring.config.ReviewBulkImportConfig;
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBulkResult;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewSummaryReactiveRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest
+@ContextConfiguration(classes = {ReviewHandler.class, ReviewBulkImportConfig.class})
+@TestPropertySource(properties = {"reviews.bulk.batchSize=4", "reviews.bulk.maxBatchWait=5ms"})
+class ReviewHandlerBulkUnitTest {
+
+    @MockBean
+    ReviewReactiveRepository reviewReactiveRepository;
+
+    @MockBean
+    ReviewSummaryReactiveRepository reviewSummaryReactiveRepository;
+
+    @Autowired
+    ReviewHandler reviewHandler;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkImportCompletesWhenReviewsTrickleThenBurstWhileInsertsAreSlow() {
+        //every insert takes longer than the batch wait, so small batches pile up behind the one being written
+        when(reviewReactiveRepository.insertUnordered(anyList()))
+                .thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(Map.of()));
+        when(reviewSummaryReactiveRepository.addRatings(any(), any()))
+                .thenReturn(Mono.empty());
+
+        var trickle = Flux.range(0, 40)
+                .delayElements(Duration.ofMillis(10))
+                .map(this::review);
+        var burst = Flux.range(40, 100)
+                .map(this::review);
+        var request = MockServerRequest.builder()
+                .header("Content-Type", MediaType.APPLICATION_NDJSON_VALUE)
+                .body(Flux.concat(trickle, burst));
+
+        var resultFlux = reviewHandler.addReviewsBulk(request)
+                .flatMapMany(response -> ((EntityResponse<Flux<ReviewBulkResult>>) response).entity());
+
+        StepVerifier.create(resultFlux)
+                .expectNextCount(140)
+                .expectComplete()
+                .verify(Duration.ofSeconds(30));
+    }
+
+    private Review review(int i) {
+        return new Review("test_BITB" + i, "1", "Comment " + i, List.of(7.0, 8.0, 9.0).get(i % 3));
+    }
+}
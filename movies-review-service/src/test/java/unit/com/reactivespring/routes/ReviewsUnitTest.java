@@ -1,38 +1,71 @@
 package com.reactivespring.routes;
 
+import com.reactivespring.config.ReviewBulkImportConfig;
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBulkResult;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.exceptionhandler.GlobalErrorHandler;
 import com.reactivespring.handler.ReviewHandler;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewSummaryReactiveRepository;
 import com.reactivespring.router.ReviewRouter;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @WebFluxTest
-@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, GlobalErrorHandler.class})
+@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, ReviewBulkImportConfig.class, GlobalErrorHandler.class})
 @AutoConfigureWebTestClient
 public class ReviewsUnitTest {
     @MockBean
     ReviewReactiveRepository reviewReactiveRepository;
 
+    @MockBean
+    ReviewSummaryReactiveRepository reviewSummaryReactiveRepository;
+
     @Autowired
     private WebTestClient webTestClient;
 
     private static final String MOVIE_REVIEW_URL = "/v1/reviews";
 
+    @BeforeEach
+    void setUp() {
+        when(reviewSummaryReactiveRepository.addRating(any(), any()))
+                .thenReturn(Mono.empty());
+        when(reviewSummaryReactiveRepository.removeRating(any(), any()))
+                .thenReturn(Mono.empty());
+        when(reviewSummaryReactiveRepository.addRatings(any(), any()))
+                .thenReturn(Mono.empty());
+    }
+
     @Test
     void testShouldAddReview() {
         var review = new Review("test_SAR", "1", "I Cried", 1.0);
@@ -57,6 +90,139 @@ public class ReviewsUnitTest {
                 });
     }
 
+    @Test
+    void testShouldStreamNewReviewsForMovie() {
+        var reviewForMovie = new Review("test_SSNR1", "1", "Awesome Movie", 9.0);
+        var reviewForOtherMovie = new Review("test_SSNR2", "2", "Excellent Movie", 8.0);
+
+        when(reviewReactiveRepository.save(isA(Review.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //the SSE response only commits with its first event, so reviews are added while exchange() is waiting
+        Mono.delay(Duration.ofMillis(500), Schedulers.boundedElastic())
+                .doOnNext(tick -> {
+                    addReview(reviewForOtherMovie);
+                    addReview(reviewForMovie);
+                })
+                .subscribe();
+
+        var reviewFlux = webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/stream?movieInfoId=1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(Review.class)
+                .getResponseBody();
+
+        StepVerifier.create(reviewFlux)
+                .expectNext(reviewForMovie)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private void addReview(Review review) {
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+    }
+
+    @Test
+    void testShouldAddReviewsBulk() {
+        var ndjson = "{\"reviewId\": \"test_SARB1\", \"movieInfoId\": \"1\", \"comment\": \"Awesome Movie\", \"rating\": 9.0}\n"
+                + "{\"reviewId\": \"test_SARB2\", \"movieInfoId\": null, \"comment\": \"No Movie\", \"rating\": 5.0}\n"
+                + "{\"reviewId\": \"test_SARB3\", \"movieInfoId\": \"1\", \"comment\": \"Duplicate\", \"rating\": 7.0}\n"
+                + "{\"reviewId\": \"test_SARB4\", \"movieInfoId\": \"1\", \"comment\": \"Great Movie\", \"rating\": 8.0}\n";
+
+        //position 1 of the inserted (valid) reviews is test_SARB3
+        when(reviewReactiveRepository.insertUnordered(anyList()))
+                .thenReturn(Mono.just(Map.of(1, "E11000 duplicate key error")));
+
+        var resultFlux = webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ReviewBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(resultFlux)
+                .expectNext(ReviewBulkResult.created(0, "test_SARB1"))
+                .expectNext(ReviewBulkResult.invalid(1, "test_SARB2", "review.movieInfoId : must not be null"))
+                .expectNext(ReviewBulkResult.failed(2, "test_SARB3", "E11000 duplicate key error"))
+                .expectNext(ReviewBulkResult.created(3, "test_SARB4"))
+                .verifyComplete();
+        verify(reviewSummaryReactiveRepository).addRatings("1", List.of(9.0, 8.0));
+    }
+
+    @Test
+    void testShouldIgnoreEchoedVersionOnAddReview() {
+        var review = new Review("test_SIEV1", "1", "Awesome Movie", 9.0, 3L);
+
+        when(reviewReactiveRepository.save(isA(Review.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        var savedReview = ArgumentCaptor.forClass(Review.class);
+        verify(reviewReactiveRepository).save(savedReview.capture());
+        assertNull(savedReview.getValue().getVersion());
+    }
+
+    @Test
+    void testFailToAddReview_existingReviewId() {
+        var review = new Review("test_FARE1", "1", "Awesome Movie", 9.0);
+
+        when(reviewReactiveRepository.save(isA(Review.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error collection: local.review index: _id_ dup key: { _id: \"test_FARE1\" }")));
+
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class)
+                .isEqualTo("{\"status\":409,\"error\":\"Conflict\",\"message\":\"Review already exists\"}");
+        verifyNoInteractions(reviewSummaryReactiveRepository);
+    }
+
+    @Test
+    void testFailToAddReview_optimisticLockingFailure() {
+        var review = new Review("test_FAROL1", "1", "Awesome Movie", 9.0);
+
+        when(reviewReactiveRepository.save(isA(Review.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Cannot save entity test_FAROL1 with version 0 to collection review")));
+
+        webTestClient
+                .post()
+                .uri(MOVIE_REVIEW_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class)
+                .isEqualTo("{\"status\":409,\"error\":\"Conflict\",\"message\":\"Review has been modified\"}");
+    }
+
     @Test
     void testFailToAddReview_validate_movieInfoId() {
         var review = new Review(null, null, "I Cried", 1.0);
@@ -72,7 +238,7 @@ public class ReviewsUnitTest {
                 .expectStatus()
                 .isBadRequest()
                 .expectBody(String.class)
-                .isEqualTo("review.movieInfoId : must not be null");
+                .isEqualTo("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"review.movieInfoId : must not be null\"}");
     }
 
     @Test
@@ -90,7 +256,7 @@ public class ReviewsUnitTest {
                 .expectStatus()
                 .isBadRequest()
                 .expectBody(String.class)
-                .isEqualTo("review.rating.negative : please pass a non-negative value");
+                .isEqualTo("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"review.rating.negative : please pass a non-negative value\"}");
     }
 
     @Test
@@ -116,14 +282,151 @@ public class ReviewsUnitTest {
                 });
     }
 
+    @Test
+    void testShouldStreamReviewsAsServerSentEvents() {
+
+        var reviewsList = List.of(
+                new Review("test_SSRE1", "1", "Awesome Movie", 9.0),
+                new Review("test_SSRE2", "1", "Great Movie", 8.0));
+        when(reviewReactiveRepository.getReviewsByMovieInfoId("1"))
+                .thenReturn(Flux.fromIterable(reviewsList));
+
+        var reviewFlux = webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "?movieInfoId=1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(Review.class)
+                .getResponseBody();
+
+        StepVerifier.create(reviewFlux)
+                .expectNext(reviewsList.get(0))
+                .expectNext(reviewsList.get(1))
+                .verifyComplete();
+    }
+
+    @Test
+    void testShouldGetReviewById_notModified() {
+        var review = new Review("abc123", "3", "Excellent Movie", 7.0, 2L);
+        when(reviewReactiveRepository.findById("abc123"))
+                .thenReturn(Mono.just(review));
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", "abc123")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(review))
+                .expectBody(Review.class)
+                .isEqualTo(review);
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", "abc123")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag(review))
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    void testShouldGetReviewById_recreatedWithOtherContent() {
+        //deleted and recreated: the version starts over, but the content differs
+        var previousReview = new Review("abc123", "3", "Excellent Movie", 7.0);
+        var review = new Review("abc123", "3", "Overrated", 4.0);
+        when(reviewReactiveRepository.findById("abc123"))
+                .thenReturn(Mono.just(review));
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", "abc123")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag(previousReview))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(review))
+                .expectBody(Review.class)
+                .isEqualTo(review);
+    }
+
+    private String eTag(Review review) {
+        return "\"" + review.eTag() + "\"";
+    }
+
+    @Test
+    void testShouldGetReviewsByMovieInfoIds() {
+
+        var reviewsList = List.of(
+                new Review("test_SGRBMI1", "1", "Awesome Movie", 9.0),
+                new Review("test_SGRBMI2", "1", "Great Movie", 9.0),
+                new Review("test_SGRBMI3", "2", "Excellent Movie", 8.0));
+        when(reviewReactiveRepository.getReviewsByMovieInfoIdInOrderByMovieInfoId(anyCollection()))
+                .thenReturn(Flux.fromIterable(reviewsList));
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "?movieInfoIds=1, 2,,1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(Review.class)
+                .isEqualTo(reviewsList);
+
+        verify(reviewReactiveRepository).getReviewsByMovieInfoIdInOrderByMovieInfoId(Set.of("1", "2"));
+        verify(reviewReactiveRepository, never()).findAll();
+    }
+
+    @Test
+    void testShouldGetReviewsPage() {
+
+        var reviewsList = List.of(
+                new Review("test_SGRP1", "1", "Awesome Movie", 9.0),
+                new Review("test_SGRP2", "1", "Great Movie", 9.0),
+                new Review("test_SGRP3", "2", "Excellent Movie", 8.0));
+        when(reviewReactiveRepository.findPageAfter(eq("test_SGRP0"), isA(Pageable.class)))
+                .thenReturn(Flux.fromIterable(reviewsList));
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "?limit=2&after=test_SGRP0")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .valueEquals("Link", "<" + MOVIE_REVIEW_URL + "?limit=2&after=test_SGRP2>; rel=\"next\"")
+                .expectBodyList(Review.class)
+                .isEqualTo(reviewsList.subList(0, 2));
+
+        verify(reviewReactiveRepository).findPageAfter("test_SGRP0", PageRequest.of(0, 3, Sort.by("reviewId")));
+    }
+
+    @Test
+    void testFailToGetReviewsPage_validate_limit() {
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "?limit=ten")
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"review.limit : must be a number\"}");
+    }
+
     @Test
     void testShouldUpdateReviewByReviewId() {
         var reviewId = "abc123";
         var reviewUpdate = new Review(reviewId, "4", "Four Thumbs Up!", 4.4);
-        when(reviewReactiveRepository.findById(reviewId))
-                .thenReturn(Mono.just(new Review(reviewId, "3", "Excellent Movie", 7.0)));
-        when(reviewReactiveRepository.save(isA(Review.class)))
-                .thenReturn(Mono.just(reviewUpdate));
+        when(reviewReactiveRepository.findAndUpdate(eq(reviewId), isA(Review.class), isNull()))
+                .thenReturn(Mono.just(new Review(reviewId, "3", "Excellent Movie", 7.0, 2L)));
 
 
         webTestClient
@@ -133,6 +436,8 @@ public class ReviewsUnitTest {
                 .exchange()
                 .expectStatus()
                 .is2xxSuccessful()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(new Review(reviewId, "4", "Four Thumbs Up!", 4.4, 3L)))
                 .expectBody(Review.class)
                 .consumeWith(reviewEntityExchangeResult -> {
                     var updatedReview = reviewEntityExchangeResult.getResponseBody();
@@ -140,21 +445,194 @@ public class ReviewsUnitTest {
                     assertEquals("Four Thumbs Up!", updatedReview.getComment());
                     assertEquals(4.4, updatedReview.getRating());
                 });
+        verify(reviewSummaryReactiveRepository).removeRating("3", 7.0);
+        verify(reviewSummaryReactiveRepository).addRating("4", 4.4);
+    }
+
+    @Test
+    void testShouldUpdateReviewByReviewId_ifMatch() {
+        var reviewId = "abc123";
+        var review = new Review(reviewId, "3", "Excellent Movie", 7.0, 1L);
+        review.setContentHash(review.hashContent());
+        var reviewUpdate = new Review(reviewId, "4", "Four Thumbs Up!", 4.4);
+        when(reviewReactiveRepository.findAndUpdate(eq(reviewId), isA(Review.class), eq(review.getContentHash())))
+                .thenReturn(Mono.just(review));
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, eTag(review))
+                .bodyValue(reviewUpdate)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(reviewUpdate));
+        verify(reviewReactiveRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testFailToUpdateReviewByReviewId_stale_ifMatch() {
+        var reviewId = "abc123";
+        var review = new Review(reviewId, "3", "Excellent Movie", 7.0, 1L);
+        review.setContentHash(review.hashContent());
+        var reviewUpdate = new Review(reviewId, "4", "Four Thumbs Up!", 4.4);
+        var staleETag = eTag(new Review(reviewId, "3", "Excellent", 7.0, 0L));
+        when(reviewReactiveRepository.findAndUpdate(eq(reviewId), isA(Review.class), anyString()))
+                .thenReturn(Mono.empty());
+        when(reviewReactiveRepository.findById(reviewId))
+                .thenReturn(Mono.just(review));
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, staleETag)
+                .bodyValue(reviewUpdate)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(reviewReactiveRepository, never()).findAndUpdateUnhashed(any(), any(), any());
+        verify(reviewSummaryReactiveRepository, never()).addRating(any(), any());
+    }
+
+    @Test
+    void testFailToUpdateReviewByReviewId_ifMatch_notFound() {
+        var reviewId = "abc123";
+        var reviewUpdate = new Review(reviewId, "4", "Four Thumbs Up!", 4.4);
+        when(reviewReactiveRepository.findAndUpdate(eq(reviewId), isA(Review.class), anyString()))
+                .thenReturn(Mono.empty());
+        when(reviewReactiveRepository.findById(reviewId))
+                .thenReturn(Mono.empty());
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, eTag(reviewUpdate))
+                .bodyValue(reviewUpdate)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void testShouldUpdateReviewByReviewId_ifMatch_writtenBeforeContentHashes() {
+        var reviewId = "abc123";
+        var review = new Review(reviewId, "3", "Excellent Movie", 7.0, 1L);
+        var reviewUpdate = new Review(reviewId, "4", "Four Thumbs Up!", 4.4);
+        when(reviewReactiveRepository.findAndUpdate(eq(reviewId), isA(Review.class), eq(review.hashContent())))
+                .thenReturn(Mono.empty());
+        when(reviewReactiveRepository.findById(reviewId))
+                .thenReturn(Mono.just(review));
+        when(reviewReactiveRepository.findAndUpdateUnhashed(eq(reviewId), isA(Review.class), eq(1L)))
+                .thenReturn(Mono.just(review));
+
+        webTestClient
+                .put()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .header(HttpHeaders.IF_MATCH, eTag(review))
+                .bodyValue(reviewUpdate)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag(reviewUpdate));
+        verify(reviewSummaryReactiveRepository).addRating("4", 4.4);
     }
 
     @Test
     void testShouldDeleteReviewById() {
         var reviewId = "abc123";
-        when(reviewReactiveRepository.findById(anyString()))
+        when(reviewReactiveRepository.findAndDelete(anyString()))
                 .thenReturn(Mono.just(new Review(reviewId, "3", "Excellent Movie", 7.0)));
-        when(reviewReactiveRepository.deleteById(anyString()))
-                .thenReturn(Mono.empty());
         webTestClient
                 .delete()
                 .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
                 .exchange()
                 .expectStatus()
                 .isNoContent();
+        verify(reviewSummaryReactiveRepository).removeRating("3", 7.0);
+    }
+
+    @Test
+    void testFailToDeleteReviewById_notFound() {
+        var reviewId = "missing";
+        when(reviewReactiveRepository.findAndDelete(reviewId))
+                .thenReturn(Mono.empty());
+        webTestClient
+                .delete()
+                .uri(MOVIE_REVIEW_URL +  "/{Id}", reviewId)
+                .exchange()
+                .expectStatus()
+                .isNotFound()
+                .expectBody(String.class)
+                .isEqualTo("{\"status\":404,\"error\":\"Not Found\",\"message\":\"Review not found for Review ID: " + reviewId + "\"}");
+        verify(reviewSummaryReactiveRepository, never()).removeRating(any(), any());
+    }
+
+    @Test
+    void testUnexpectedErrorWithoutMessage() {
+        when(reviewReactiveRepository.findById("abc123"))
+                .thenReturn(Mono.error(new IllegalStateException()));
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/{Id}", "abc123")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBody(String.class)
+                .isEqualTo("{\"status\":500,\"error\":\"Internal Server Error\",\"message\":null}");
+    }
+
+    @Test
+    void testUnknownRouteIsAStructured404() {
+        webTestClient
+                .get()
+                .uri("/v1/unknown")
+                .exchange()
+                .expectStatus()
+                .isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.error").isEqualTo("Not Found");
+    }
+
+    @Test
+    void testShouldGetReviewSummary() {
+        var reviewSummary = new ReviewSummary("1", 3, 26.0, Map.of("8", 1L, "9", 2L));
+        when(reviewSummaryReactiveRepository.findById("1"))
+                .thenReturn(Mono.just(reviewSummary));
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/summary/{movieInfoId}", "1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(3)
+                .jsonPath("$.mean").isEqualTo(26.0 / 3)
+                .jsonPath("$.histogram.9").isEqualTo(2);
+        verify(reviewReactiveRepository, never()).getReviewsByMovieInfoId(anyString());
+    }
+
+    @Test
+    void testShouldAnswerEmptyReviewSummaryForMovieWithoutReviews() {
+        when(reviewSummaryReactiveRepository.findById("1"))
+                .thenReturn(Mono.empty());
+
+        webTestClient
+                .get()
+                .uri(MOVIE_REVIEW_URL + "/summary/{movieInfoId}", "1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody()
+                .jsonPath("$.movieInfoId").isEqualTo("1")
+                .jsonPath("$.count").isEqualTo(0)
+                .jsonPath("$.mean").isEqualTo(0.0);
+        verify(reviewReactiveRepository, never()).getReviewsByMovieInfoId(anyString());
     }
 
 }
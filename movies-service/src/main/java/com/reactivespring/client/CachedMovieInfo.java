@@ -0,0 +1,14 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieInfo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//Last movie info body seen together with the ETag it was served with, used to revalidate instead of refetching
+@Data
+@AllArgsConstructor
+public class CachedMovieInfo {
+
+    private String eTag;
+    private MovieInfo movieInfo;
+}
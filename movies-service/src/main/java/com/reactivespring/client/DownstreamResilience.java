@@ -0,0 +1,63 @@
+package com.reactivespring.client;
+
+import com.reactivespring.config.RestClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+//Wraps every call to one downstream in: retry(5xx only) -> circuit breaker -> per-attempt timeout -> bulkhead
+@Slf4j
+public class DownstreamResilience {
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private RestClientProperties.Resilience settings;
+    private Class<? extends Throwable> serverException;
+
+    public DownstreamResilience(CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                                RestClientProperties.Resilience settings, Class<? extends Throwable> serverException) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.settings = settings;
+        this.serverException = serverException;
+    }
+
+    public <T> Mono<T> decorate(Mono<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .timeout(settings.getTimeout())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .retryWhen(retrySpec());
+    }
+
+    public <T> Flux<T> decorate(Flux<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .timeout(settings.getTimeout())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .retryWhen(retrySpec());
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    private Retry retrySpec() {
+        return Retry.backoff(settings.getMaxRetries(), settings.getRetryMinBackoff())
+                .maxBackoff(settings.getRetryMaxBackoff())
+                .jitter(settings.getRetryJitter())
+                .filter(serverException::isInstance)
+                .doBeforeRetry(retrySignal -> log.info("retrying {} call, attempt {} after: {}",
+                        circuitBreaker.getName(), retrySignal.totalRetries() + 1, retrySignal.failure().getMessage()))
+                .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> retrySignal.failure());
+    }
+}
@@ -1,14 +1,24 @@
 package com.reactivespring.client;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.reactivespring.domain.MovieInfo;
 import com.reactivespring.exception.MoviesInfoClientException;
 import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.tracing.SignalTrace;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
@@ -19,21 +29,89 @@ public class MovieInfoRestClient {
     @Value("${restClient.movieInfoUrl}")
     private String movieInfoUrl;
 
-    public MovieInfoRestClient(WebClient webClient) {
+    @Value("${restClient.movieInfoCache.enabled:true}")
+    private boolean movieInfoCacheEnabled;
+
+    private AsyncCache<String, Optional<MovieInfo>> movieInfoCache;
+
+    private Cache<String, CachedMovieInfo> movieInfoValidatorCache;
+
+    private DownstreamResilience movieInfoResilience;
+
+    public MovieInfoRestClient(@Qualifier("movieInfoWebClient") WebClient webClient, AsyncCache<String, Optional<MovieInfo>> movieInfoCache,
+                               Cache<String, CachedMovieInfo> movieInfoValidatorCache,
+                               @Qualifier("movieInfoResilience") DownstreamResilience movieInfoResilience) {
         this.webClient = webClient;
+        this.movieInfoCache = movieInfoCache;
+        this.movieInfoValidatorCache = movieInfoValidatorCache;
+        this.movieInfoResilience = movieInfoResilience;
     }
 
     public Mono<MovieInfo> retrieveMovieInfo(String movieId) {
+        if (!movieInfoCacheEnabled) {
+            return fetchMovieInfo(movieId);
+        }
+        return Mono.deferContextual(context -> {
+            //concurrent misses for the same id share one in-flight call; copy() keeps a cancelled caller from cancelling it
+            var movieInfoFuture = movieInfoCache.get(movieId, (id, executor) -> fetchMovieInfoForCache(id, context));
+            return Mono.fromFuture(movieInfoFuture.copy())
+                    //drop a failed load before the next caller can see it, so 5xx and connection errors are retried
+                    .doOnError(e -> movieInfoCache.asMap().remove(movieId, movieInfoFuture));
+        }).flatMap(movieInfo -> movieInfo.map(Mono::just)
+                .orElseGet(() -> Mono.error(movieInfoNotFound(movieId))));
+    }
+
+    //revalidates the last known body with If-None-Match, so an unchanged movie info costs a 304 with no body.
+    //The load runs detached from its caller through a CompletableFuture, so the caller's context (and trace) is passed on explicitly
+    private CompletableFuture<Optional<MovieInfo>> fetchMovieInfoForCache(String movieId, ContextView callerContext) {
+        var cached = movieInfoValidatorCache.getIfPresent(movieId);
+        return exchangeMovieInfo(movieId, cached == null ? null : cached.getETag())
+                .map(response -> {
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                        return Optional.of(cached.getMovieInfo());
+                    }
+                    var movieInfo = response.getBody();
+                    var eTag = response.getHeaders().getETag();
+                    if (eTag != null && movieInfo != null) {
+                        movieInfoValidatorCache.put(movieId, new CachedMovieInfo(eTag, movieInfo));
+                    }
+                    return Optional.ofNullable(movieInfo);
+                })
+                .onErrorResume(MoviesInfoClientException.class, e -> {
+                    if (e.getStatusCode() != HttpStatus.NOT_FOUND.value()) {
+                        return Mono.error(e);
+                    }
+                    movieInfoValidatorCache.invalidate(movieId);
+                    return Mono.just(Optional.empty());
+                })
+                .contextWrite(callerContext)
+                .toFuture();
+    }
+
+    private MoviesInfoClientException movieInfoNotFound(String movieId) {
+        return new MoviesInfoClientException("There is no Movie Available for Id: " + movieId, HttpStatus.NOT_FOUND.value());
+    }
+
+    private Mono<MovieInfo> fetchMovieInfo(String movieId) {
+        return exchangeMovieInfo(movieId, null)
+                .flatMap(response -> Mono.justOrEmpty(response.getBody()));
+    }
+
+    private Mono<ResponseEntity<MovieInfo>> exchangeMovieInfo(String movieId, String eTag) {
         var url = movieInfoUrl.concat("/{id}");
-        return webClient
+        var movieInfoMono = webClient
                 .get()
                 .uri(url, movieId)
+                .headers(headers -> {
+                    if (eTag != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, eTag);
+                    }
+                })
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
                     log.info("retrieveMovieInfo call status code is: " + clientResponse.statusCode().value());
                     if (clientResponse.statusCode().equals(HttpStatus.NOT_FOUND)) {
-                        return Mono.error(new MoviesInfoClientException(
-                                "There is no Movie Available for Id: " + movieId, clientResponse.statusCode().value()));
+                        return Mono.error(movieInfoNotFound(movieId));
                     }
                     return clientResponse.bodyToMono(String.class)
                             .flatMap(responseMessage -> Mono.error(new MoviesInfoClientException(
@@ -45,7 +123,8 @@ public class MovieInfoRestClient {
                             .flatMap(errorMessage -> Mono.error(new MoviesInfoServerException(
                                     "Problem encountered with MovieInfoService: " + errorMessage)));
                 })
-                .bodyToMono(MovieInfo.class)
-                .log();
+                .toEntity(MovieInfo.class)
+                .transform(SignalTrace.mono("exchangeMovieInfo"));
+        return movieInfoResilience.decorate(movieInfoMono);
     }
 }
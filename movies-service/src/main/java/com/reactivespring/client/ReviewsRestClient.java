@@ -6,6 +6,7 @@ import com.reactivespring.exception.MoviesInfoServerException;
 import com.reactivespring.exception.ReviewsClientException;
 import com.reactivespring.exception.ReviewsServerException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -14,6 +15,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Slf4j
 @Component
 public class ReviewsRestClient {
@@ -22,19 +25,43 @@ public class ReviewsRestClient {
     @Value("${restClient.reviewsUrl}")
     private String reviewsUrl;
 
-    public ReviewsRestClient(WebClient webClient) {
+    //50 ObjectIds make a ~1.3KB query string, well under the 4096 byte initial line reactor-netty accepts
+    @Value("${restClient.reviewsMaxIdsPerRequest:50}")
+    private int reviewsMaxIdsPerRequest;
+
+    private DownstreamResilience reviewsResilience;
+
+    public ReviewsRestClient(@Qualifier("reviewsWebClient") WebClient webClient,
+                             @Qualifier("reviewsResilience") DownstreamResilience reviewsResilience) {
         this.webClient = webClient;
+        this.reviewsResilience = reviewsResilience;
     }
 
     public Flux<Review> retrieveReviews(String movieId) {
 
+        //kept as a template so the http.client.requests uri tag does not get one value per movie
+        var url = UriComponentsBuilder.fromHttpUrl(reviewsUrl)
+                .queryParam("movieInfoId", "{movieInfoId}")
+                .build().toUriString();
+
+        return retrieveReviewsFromUrl(url, movieId);
+    }
+
+    public Flux<Review> retrieveReviewsByMovieIds(Collection<String> movieIds) {
+
         var url = UriComponentsBuilder.fromHttpUrl(reviewsUrl)
-                .queryParam("movieInfoId", movieId)
-                .buildAndExpand().toString();
+                .queryParam("movieInfoIds", "{movieInfoIds}")
+                .build().toUriString();
+
+        return Flux.fromIterable(movieIds)
+                .buffer(reviewsMaxIdsPerRequest)
+                .flatMap(movieIdsChunk -> retrieveReviewsFromUrl(url, String.join(",", movieIdsChunk)));
+    }
 
-        return webClient
+    private Flux<Review> retrieveReviewsFromUrl(String url, String queryValue) {
+        var reviewsFlux = webClient
                 .get()
-                .uri(url)
+                .uri(url, queryValue)
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
                     log.info("retrieveReviews call status code is: " + clientResponse.statusCode().value());
@@ -52,5 +79,6 @@ public class ReviewsRestClient {
                                     "Problem encountered with ReviewsService: " + errorMessage)));
                 })
                 .bodyToFlux(Review.class);
+        return reviewsResilience.decorate(reviewsFlux);
     }
 }
@@ -0,0 +1,9 @@
+package com.reactivespring.config;
+
+//How an aggregate route combines its downstream calls
+public enum AggregationMode {
+    //wait for movie info before asking for reviews
+    SEQUENTIAL,
+    //fire both lookups at once and zip the results
+    PARALLEL
+}
@@ -0,0 +1,76 @@
+package com.reactivespring.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.reactivespring.client.CachedMovieInfo;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Configuration
+public class CacheConfig {
+
+    //an empty Optional is a cached 404, kept for the shorter negativeTtl; hits, misses and evictions are
+    //scraped from /actuator/prometheus as cache_*{cache="movieInfo"}
+    @Bean
+    public AsyncCache<String, Optional<MovieInfo>> movieInfoCache(
+            @Value("${restClient.movieInfoCache.maxSize:10000}") long maxSize,
+            @Value("${restClient.movieInfoCache.ttl:5m}") Duration ttl,
+            @Value("${restClient.movieInfoCache.negativeTtl:30s}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+        AsyncCache<String, Optional<MovieInfo>> movieInfoCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<MovieInfo>>() {
+                    @Override
+                    public long expireAfterCreate(String movieId, Optional<MovieInfo> movieInfo, long currentTime) {
+                        return movieInfo.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String movieId, Optional<MovieInfo> movieInfo, long currentTime, long currentDuration) {
+                        return expireAfterCreate(movieId, movieInfo, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String movieId, Optional<MovieInfo> movieInfo, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, movieInfoCache.synchronous(), "movieInfo");
+        return movieInfoCache;
+    }
+
+    //outlives movieInfoCache so an expired entry is revalidated with If-None-Match, and a 304 skips the body
+    @Bean
+    public Cache<String, CachedMovieInfo> movieInfoValidatorCache(
+            @Value("${restClient.movieInfoCache.maxSize:10000}") long maxSize,
+            @Value("${restClient.movieInfoCache.revalidateTtl:1h}") Duration revalidateTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(revalidateTtl)
+                .build();
+    }
+
+    //last good reviews per movie, served when reviews-service misses its latency budget
+    @Bean
+    public Cache<String, List<Review>> reviewsFallbackCache(
+            @Value("${restClient.reviewsFallbackCache.maxSize:10000}") long maxSize,
+            @Value("${restClient.reviewsFallbackCache.ttl:1h}") Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+}
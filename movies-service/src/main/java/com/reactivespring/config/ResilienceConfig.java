@@ -0,0 +1,58 @@
+package com.reactivespring.config;
+
+import com.reactivespring.client.DownstreamResilience;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.exception.ReviewsClientException;
+import com.reactivespring.exception.ReviewsServerException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public DownstreamResilience movieInfoResilience(RestClientProperties restClientProperties) {
+        var settings = restClientProperties.getMovieInfo().getResilience();
+        return new DownstreamResilience(
+                circuitBreaker("movieInfo", settings, MoviesInfoClientException.class),
+                bulkhead("movieInfo", settings),
+                settings,
+                MoviesInfoServerException.class);
+    }
+
+    @Bean
+    public DownstreamResilience reviewsResilience(RestClientProperties restClientProperties) {
+        var settings = restClientProperties.getReviews().getResilience();
+        return new DownstreamResilience(
+                circuitBreaker("reviews", settings, ReviewsClientException.class),
+                bulkhead("reviews", settings),
+                settings,
+                ReviewsServerException.class);
+    }
+
+    //4xx answers mean the downstream is healthy, so they never trip the breaker
+    private CircuitBreaker circuitBreaker(String name, RestClientProperties.Resilience settings,
+                                          Class<? extends Throwable> clientException) {
+        var circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .ignoreExceptions(clientException)
+                .build();
+        return CircuitBreaker.of(name, circuitBreakerConfig);
+    }
+
+    private Bulkhead bulkhead(String name, RestClientProperties.Resilience settings) {
+        var bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(settings.getMaxWaitDuration())
+                .build();
+        return Bulkhead.of(name, bulkheadConfig);
+    }
+}
@@ -0,0 +1,46 @@
+package com.reactivespring.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//Connection pool and HTTP settings for each downstream service, bound from restClient.movieInfo / restClient.reviews
+@Data
+@ConfigurationProperties(prefix = "rest-client")
+public class RestClientProperties {
+
+    private Downstream movieInfo = new Downstream();
+    private Downstream reviews = new Downstream();
+
+    @Data
+    public static class Downstream {
+        private int maxConnections = 100;
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private boolean keepAlive = true;
+        private boolean http2 = false;
+        private Resilience resilience = new Resilience();
+    }
+
+    @Data
+    public static class Resilience {
+        //per attempt; retries only happen for 5xx responses
+        private Duration timeout = Duration.ofSeconds(3);
+        private int maxRetries = 2;
+        private Duration retryMinBackoff = Duration.ofMillis(100);
+        private Duration retryMaxBackoff = Duration.ofSeconds(1);
+        private double retryJitter = 0.5;
+        private float failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int maxConcurrentCalls = 50;
+        private Duration maxWaitDuration = Duration.ZERO;
+    }
+}
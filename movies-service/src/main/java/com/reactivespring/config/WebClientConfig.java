@@ -1,14 +1,84 @@
 package com.reactivespring.config;
 
+import io.micrometer.core.instrument.Tags;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.metrics.web.reactive.client.DefaultWebClientExchangeTagsProvider;
+import org.springframework.boot.actuate.metrics.web.reactive.client.WebClientExchangeTagsProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+//Each downstream gets its own connection pool so a slow service cannot starve the other one
 @Configuration
+@EnableConfigurationProperties(RestClientProperties.class)
 public class WebClientConfig {
 
+    //request attribute naming the downstream a WebClient talks to, used to tag http.client.requests
+    public static final String DOWNSTREAM_ATTRIBUTE = WebClientConfig.class.getName() + ".downstream";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider movieInfoConnectionProvider(RestClientProperties restClientProperties) {
+        return connectionProvider("movieInfo", restClientProperties.getMovieInfo());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider reviewsConnectionProvider(RestClientProperties restClientProperties) {
+        return connectionProvider("reviews", restClientProperties.getReviews());
+    }
+
+    @Bean
+    public WebClient movieInfoWebClient(WebClient.Builder builder, @Qualifier("movieInfoConnectionProvider") ConnectionProvider connectionProvider,
+                                        RestClientProperties restClientProperties) {
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, restClientProperties.getMovieInfo())))
+                .defaultRequest(request -> request.attribute(DOWNSTREAM_ATTRIBUTE, "movieInfo"))
+                .build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();
+    public WebClient reviewsWebClient(WebClient.Builder builder, @Qualifier("reviewsConnectionProvider") ConnectionProvider connectionProvider,
+                                      RestClientProperties restClientProperties) {
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, restClientProperties.getReviews())))
+                .defaultRequest(request -> request.attribute(DOWNSTREAM_ATTRIBUTE, "reviews"))
+                .build();
+    }
+
+    //both downstreams usually share a host, so clientName alone cannot tell them apart
+    @Bean
+    public WebClientExchangeTagsProvider webClientExchangeTagsProvider() {
+        var defaultTagsProvider = new DefaultWebClientExchangeTagsProvider();
+        return (request, response, throwable) -> Tags.of(defaultTagsProvider.tags(request, response, throwable))
+                .and("downstream", request.attribute(DOWNSTREAM_ATTRIBUTE).map(Object::toString).orElse("none"));
+    }
+
+    private ConnectionProvider connectionProvider(String name, RestClientProperties.Downstream downstream) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(downstream.getMaxConnections())
+                .pendingAcquireMaxCount(downstream.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(downstream.getPendingAcquireTimeout())
+                .maxIdleTime(downstream.getMaxIdleTime())
+                .maxLifeTime(downstream.getMaxLifeTime())
+                .evictInBackground(downstream.getEvictInBackground())
+                //reactor.netty.connection.provider.* gauges (total, active, idle, pending), tagged with the pool name
+                .metrics(true)
+                .build();
+    }
+
+    private HttpClient httpClient(ConnectionProvider connectionProvider, RestClientProperties.Downstream downstream) {
+        var httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) downstream.getConnectTimeout().toMillis())
+                .responseTimeout(downstream.getResponseTimeout())
+                .keepAlive(downstream.isKeepAlive());
+        if (downstream.isHttp2()) {
+            return httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
     }
 }
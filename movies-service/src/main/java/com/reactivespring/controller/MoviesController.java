@@ -1,15 +1,38 @@
 package com.reactivespring.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.reactivespring.client.MovieInfoRestClient;
 import com.reactivespring.client.ReviewsRestClient;
+import com.reactivespring.config.AggregationMode;
 import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.MoviesInfoClientException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Slf4j
 @RestController
 @RequestMapping("/v1/movies")
@@ -18,21 +41,161 @@ public class MoviesController {
     private MovieInfoRestClient movieInfoRestClient;
     private ReviewsRestClient reviewsRestClient;
 
-    public MoviesController(MovieInfoRestClient movieInfoRestClient, ReviewsRestClient reviewsRestClient) {
+    @Value("${aggregation.retrieveMovieById:PARALLEL}")
+    private AggregationMode retrieveMovieByIdMode;
+
+    @Value("${aggregation.batch.concurrency:16}")
+    private int batchConcurrency;
+
+    @Value("${aggregation.batch.maxSize:200}")
+    private int batchMaxSize;
+
+    @Value("${aggregation.reviews.degradeOnFailure:true}")
+    private boolean reviewsDegradeOnFailure;
+
+    @Value("${aggregation.reviews.latencyBudget:500ms}")
+    private Duration reviewsLatencyBudget;
+
+    @Value("${aggregation.reviews.batchLatencyBudget:2s}")
+    private Duration reviewsBatchLatencyBudget;
+
+    private Cache<String, List<Review>> reviewsFallbackCache;
+
+    private ObjectMapper objectMapper;
+
+    public MoviesController(MovieInfoRestClient movieInfoRestClient, ReviewsRestClient reviewsRestClient,
+                            Cache<String, List<Review>> reviewsFallbackCache, ObjectMapper objectMapper) {
         this.movieInfoRestClient = movieInfoRestClient;
         this.reviewsRestClient = reviewsRestClient;
+        this.reviewsFallbackCache = reviewsFallbackCache;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{id}")
-    public Mono<Movie> retrieveMovieById(@PathVariable("id") String movieId){
-        log.info("\n\n************* movieInfoRestClient: " + movieInfoRestClient + " ****************\n\n");
-        log.info("\n\n************* reviewsRestClient: " + reviewsRestClient + " ****************\n\n");
+    public Mono<ResponseEntity<byte[]>> retrieveMovieById(@PathVariable("id") String movieId){
+        if (retrieveMovieByIdMode == AggregationMode.PARALLEL) {
+            return retrieveMovieParallel(movieId).flatMap(this::okWithETag);
+        }
         return movieInfoRestClient.retrieveMovieInfo(movieId)
                 .flatMap(movieInfo -> {
-                    var reviewsListMono = reviewsRestClient.retrieveReviews(movieId).collectList();
-                    return reviewsListMono.map(reviews -> new Movie(movieInfo, reviews));
+                    var reviewsListMono = retrieveReviews(movieId);
+                    return reviewsListMono.map(reviews -> new Movie(movieInfo, reviews.getReviews(), reviews.isPartial()));
+                })
+                .flatMap(this::okWithETag);
+    }
+
+    //strong ETag over the bytes that are sent, so an unchanged movie is answered with 304 and no body;
+    //a partial movie gets none, so clients never revalidate against degraded data
+    private Mono<ResponseEntity<byte[]>> okWithETag(Movie movie) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(movie))
+                .map(body -> {
+                    var response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+                    return (movie.isPartial() ? response : response.eTag(DigestUtils.md5DigestAsHex(body))).body(body);
+                });
+    }
+
+    private Mono<Movie> retrieveMovieParallel(String movieId) {
+        // reviews are materialized so that a reviews failure never overtakes a movie info error (e.g. the 404)
+        var reviewsSignalMono = retrieveReviews(movieId).materialize();
+        return Mono.zip(movieInfoRestClient.retrieveMovieInfo(movieId), reviewsSignalMono)
+                .flatMap(tuple -> {
+                    var reviewsSignal = tuple.getT2();
+                    if (reviewsSignal.hasError()) {
+                        return Mono.error(reviewsSignal.getThrowable());
+                    }
+                    var reviews = reviewsSignal.get();
+                    return Mono.just(new Movie(tuple.getT1(), reviews.getReviews(), reviews.isPartial()));
+                });
+    }
+
+    //with degradeOnFailure, a slow or failing reviews-service yields the last good list (or none) marked as partial
+    private Mono<ReviewsResult<List<Review>>> retrieveReviews(String movieId) {
+        var reviewsMono = reviewsRestClient.retrieveReviews(movieId).collectList();
+        if (!reviewsDegradeOnFailure) {
+            return reviewsMono.map(ReviewsResult::complete);
+        }
+        return reviewsMono
+                .timeout(reviewsLatencyBudget)
+                .doOnNext(reviews -> reviewsFallbackCache.put(movieId, reviews))
+                .map(ReviewsResult::complete)
+                .onErrorResume(e -> {
+                    log.warn("Serving movie {} with fallback reviews: {}", movieId, e.toString());
+                    return Mono.just(ReviewsResult.partial(reviewsFallbackCache.asMap().getOrDefault(movieId, List.of())));
+                });
+    }
+
+    private Mono<ReviewsResult<Map<String, List<Review>>>> retrieveReviewsByMovieIds(Set<String> movieIds) {
+        var reviewsMono = reviewsRestClient.retrieveReviewsByMovieIds(movieIds)
+                .collect(Collectors.groupingBy(Review::getMovieInfoId));
+        if (!reviewsDegradeOnFailure) {
+            return reviewsMono.map(ReviewsResult::complete);
+        }
+        return reviewsMono
+                .timeout(reviewsBatchLatencyBudget)
+                .doOnNext(reviewsByMovieId -> movieIds.forEach(movieId ->
+                        reviewsFallbackCache.put(movieId, reviewsByMovieId.getOrDefault(movieId, List.of()))))
+                .map(ReviewsResult::complete)
+                .onErrorResume(e -> {
+                    log.warn("Serving {} movies with fallback reviews: {}", movieIds.size(), e.toString());
+                    return Mono.just(ReviewsResult.partial(reviewsFallbackCache.getAllPresent(movieIds)));
                 });
     }
 
+    //a page of movies costs one reviews call per restClient.reviewsMaxIdsPerRequest ids plus a bounded fan-out of movie info calls
+    @PostMapping("/batch")
+    public Flux<Movie> retrieveMoviesByIds(@RequestBody List<String> movieIds) {
+        if (movieIds.size() > batchMaxSize) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + batchMaxSize + " movie ids per batch, got " + movieIds.size()));
+        }
+        var distinctMovieIds = new LinkedHashSet<>(movieIds);
+        if (distinctMovieIds.isEmpty()) {
+            return Flux.empty();
+        }
+        var reviewsByMovieId = retrieveReviewsByMovieIds(distinctMovieIds).cache();
+        var movies = Flux.fromIterable(distinctMovieIds)
+                .flatMapSequential(movieId -> retrieveMovieInfoIfPresent(movieId)
+                        .flatMap(movieInfo -> reviewsByMovieId.map(reviews -> toMovie(movieId, movieInfo, reviews))),
+                        batchConcurrency);
+        //merge subscribes to the reviews call right away so it runs alongside the movie info fan-out
+        return Flux.merge(reviewsByMovieId.then(Mono.<Movie>empty()), movies);
+    }
+
+    private Mono<MovieInfo> retrieveMovieInfoIfPresent(String movieId) {
+        return movieInfoRestClient.retrieveMovieInfo(movieId)
+                .onErrorResume(MoviesInfoClientException.class, e -> e.getStatusCode() == HttpStatus.NOT_FOUND.value()
+                        ? Mono.empty()
+                        : Mono.error(e));
+    }
+
+    private Movie toMovie(String movieId, MovieInfo movieInfo, ReviewsResult<Map<String, List<Review>>> reviewsByMovieId) {
+        var reviews = reviewsByMovieId.getReviews().getOrDefault(movieId, List.of());
+        return new Movie(movieInfo, new ArrayList<>(reviews), reviewsByMovieId.isPartial());
+    }
+
+    private static class ReviewsResult<T> {
+        private final T reviews;
+        private final boolean partial;
+
+        private ReviewsResult(T reviews, boolean partial) {
+            this.reviews = reviews;
+            this.partial = partial;
+        }
 
+        static <T> ReviewsResult<T> complete(T reviews) {
+            return new ReviewsResult<>(reviews, false);
+        }
+
+        static <T> ReviewsResult<T> partial(T reviews) {
+            return new ReviewsResult<>(reviews, true);
+        }
+
+        T getReviews() {
+            return reviews;
+        }
+
+        boolean isPartial() {
+            return partial;
+        }
+    }
 }
@@ -14,4 +14,10 @@ public class Movie {
 
     private MovieInfo movieInfo;
     private List<Review> reviewList;
+    //true when reviews-service was slow or down and reviewList is empty or stale
+    private boolean partial;
+
+    public Movie(MovieInfo movieInfo, List<Review> reviewList) {
+        this(movieInfo, reviewList, false);
+    }
 }
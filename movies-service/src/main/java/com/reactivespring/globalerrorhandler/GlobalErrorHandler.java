@@ -2,6 +2,8 @@ package com.reactivespring.globalerrorhandler;
 
 import com.reactivespring.exception.MoviesInfoClientException;
 import com.reactivespring.exception.MoviesInfoServerException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
@@ -10,7 +12,9 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,6 +27,12 @@ public class GlobalErrorHandler {
         return ResponseEntity.status(e.getStatusCode()).body(e.getMessage());
     }
 
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleResponseStatusException(ResponseStatusException e) {
+        log.info("Exception Caught in handleResponseStatusException : {} ", e.getMessage());
+        return ResponseEntity.status(e.getStatus()).body(e.getReason());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRequestServerException(RuntimeException e) {
         log.error("Exception Caught in handleRequestServerException : {} ", e.getMessage(), e);
@@ -35,4 +45,16 @@ public class GlobalErrorHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Problem encountered connecting to MovieInfoServer: " + e.getMessage());
     }
 
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ResponseEntity<String> handleDownstreamUnavailableException(RuntimeException e) {
+        log.error("Exception Caught in handleDownstreamUnavailableException : {} ", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> handleDownstreamTimeoutException(TimeoutException e) {
+        log.error("Exception Caught in handleDownstreamTimeoutException : {} ", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+    }
+
 }
@@ -0,0 +1,73 @@
+package com.reactivespring.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Hands events off the event loop: emit() only enqueues into a bounded queue, dropping when it is full,
+//and a single thread serializes and logs them
+@Slf4j(topic = "signal-trace")
+public class SignalTraceWriter implements Disposable {
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final Queue<SignalTraceEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private final Scheduler scheduler = Schedulers.newSingle("signal-trace");
+
+    public SignalTraceWriter(ObjectMapper objectMapper, int capacity) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+    }
+
+    public void emit(SignalTraceEvent event) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(event);
+        if (draining.compareAndSet(false, true)) {
+            scheduler.schedule(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            SignalTraceEvent event;
+            while ((event = queue.poll()) != null) {
+                pending.decrementAndGet();
+                write(event);
+            }
+            var droppedEvents = dropped.sumThenReset();
+            if (droppedEvents > 0) {
+                log.warn("dropped {} signal trace events, the queue of {} was full", droppedEvents, capacity);
+            }
+            draining.set(false);
+        } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void write(SignalTraceEvent event) {
+        try {
+            log.info("{}", objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("could not serialize signal trace event {}: {}", event, e.toString());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,170 @@
+package com.reactivespring.client;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "restClient.movieInfoUrl=http://localhost:${wiremock.server.port}/v1/movieInfo",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.movieInfoCache.enabled=false",
+        "restClient.movieInfo.resilience.timeout=500ms",
+        "restClient.movieInfo.resilience.maxRetries=2",
+        "restClient.movieInfo.resilience.retryMinBackoff=20ms",
+        "restClient.movieInfo.resilience.slidingWindowSize=4",
+        "restClient.movieInfo.resilience.minimumNumberOfCalls=4",
+        "restClient.movieInfo.resilience.waitDurationInOpenState=1m",
+        "restClient.reviews.resilience.maxConcurrentCalls=1",
+})
+public class DownstreamResilienceIntgTest {
+
+    private static final String MOVIE_ID = "abc";
+    private static final String MOVIE_INFO_PATH = "/v1/movieInfo/" + MOVIE_ID;
+
+    @Autowired
+    MovieInfoRestClient movieInfoRestClient;
+
+    @Autowired
+    ReviewsRestClient reviewsRestClient;
+
+    @Autowired
+    @Qualifier("movieInfoResilience")
+    DownstreamResilience movieInfoResilience;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.reset();
+        movieInfoResilience.getCircuitBreaker().reset();
+    }
+
+    @Test
+    void timeout_isNotRetried() {
+        stubFor(get(urlEqualTo(MOVIE_INFO_PATH))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")
+                        .withFixedDelay(1500)));
+
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(MOVIE_ID))
+                .expectError(TimeoutException.class)
+                .verify();
+
+        verify(1, getRequestedFor(urlEqualTo(MOVIE_INFO_PATH)));
+    }
+
+    @Test
+    void serverError_isRetriedUntilSuccess() {
+        stubFor(get(urlEqualTo(MOVIE_INFO_PATH))
+                .inScenario("retry")
+                .whenScenarioStateIs(STARTED)
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("MovieInfo Service Unavailable"))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo(MOVIE_INFO_PATH))
+                .inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(MOVIE_ID))
+                .expectNextMatches(movieInfo -> movieInfo.getName().equals("Batman Begins"))
+                .verifyComplete();
+
+        verify(2, getRequestedFor(urlEqualTo(MOVIE_INFO_PATH)));
+    }
+
+    @Test
+    void serverError_retriesExhausted() {
+        stubFor(get(urlEqualTo(MOVIE_INFO_PATH))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("MovieInfo Service Unavailable")));
+
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(MOVIE_ID))
+                .expectError(MoviesInfoServerException.class)
+                .verify();
+
+        verify(3, getRequestedFor(urlEqualTo(MOVIE_INFO_PATH)));
+    }
+
+    @Test
+    void clientError_isNotRetriedAndDoesNotTripBreaker() {
+        stubFor(get(urlEqualTo(MOVIE_INFO_PATH))
+                .willReturn(aResponse()
+                        .withStatus(400)
+                        .withBody("Bad Request")));
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(MOVIE_ID))
+                    .expectError(MoviesInfoClientException.class)
+                    .verify();
+        }
+
+        verify(5, getRequestedFor(urlEqualTo(MOVIE_INFO_PATH)));
+        assertEquals(CircuitBreaker.State.CLOSED, movieInfoResilience.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void circuitBreaker_opensAfterRepeatedServerErrors() {
+        stubFor(get(urlEqualTo(MOVIE_INFO_PATH))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("MovieInfo Service Unavailable")));
+
+        //every attempt is recorded, so the window of 4 fills during the second call
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(MOVIE_ID))
+                    .expectError()
+                    .verify();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, movieInfoResilience.getCircuitBreaker().getState());
+        var requestsWhenOpened = findAll(getRequestedFor(urlEqualTo(MOVIE_INFO_PATH))).size();
+
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(MOVIE_ID))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        verify(requestsWhenOpened, getRequestedFor(urlEqualTo(MOVIE_INFO_PATH)));
+    }
+
+    @Test
+    void bulkhead_rejectsCallsOverTheConcurrencyLimit() {
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")
+                        .withFixedDelay(500)));
+
+        var concurrentCalls = Mono.zip(
+                reviewsRestClient.retrieveReviews(MOVIE_ID).collectList(),
+                reviewsRestClient.retrieveReviews(MOVIE_ID).collectList());
+
+        StepVerifier.create(concurrentCalls)
+                .expectError(BulkheadFullException.class)
+                .verify();
+    }
+}
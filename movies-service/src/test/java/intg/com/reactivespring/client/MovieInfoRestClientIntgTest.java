@@ -0,0 +1,147 @@
+package com.reactivespring.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Optional;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "restClient.movieInfoUrl=http://localhost:${wiremock.server.port}/v1/movieInfo",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.movieInfoCache.enabled=true",
+        "restClient.movieInfo.resilience.maxRetries=0",
+})
+public class MovieInfoRestClientIntgTest {
+
+    @Autowired
+    MovieInfoRestClient movieInfoRestClient;
+
+    @Autowired
+    AsyncCache<String, Optional<MovieInfo>> movieInfoCache;
+
+    @Autowired
+    Cache<String, CachedMovieInfo> movieInfoValidatorCache;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.reset();
+        movieInfoCache.synchronous().invalidateAll();
+        movieInfoValidatorCache.invalidateAll();
+    }
+
+    @Test
+    void retrieveMovieInfo_expiredEntryIsRevalidated() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("ETag", "\"1\"")
+                        .withBodyFile("movieinfo.json")));
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .withHeader("If-None-Match", equalTo("\"1\""))
+                .willReturn(aResponse()
+                        .withStatus(304)
+                        .withHeader("ETag", "\"1\"")));
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(movieId))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        //when
+        movieInfoCache.synchronous().invalidate(movieId);
+
+        //then
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(movieId))
+                .expectNextMatches(movieInfo -> movieInfo.getName().equals("Batman Begins"))
+                .verifyComplete();
+        verify(2, getRequestedFor(urlEqualTo("/v1/movieInfo/" + movieId)));
+        verify(1, getRequestedFor(urlEqualTo("/v1/movieInfo/" + movieId))
+                .withHeader("If-None-Match", equalTo("\"1\"")));
+    }
+
+    @Test
+    void retrieveMovieInfo_concurrentMissesShareOneCall() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")
+                        .withFixedDelay(300)));
+        var hitsBefore = movieInfoCache.synchronous().stats().hitCount();
+
+        //when
+        var movieInfoFlux = Flux.range(0, 10)
+                .flatMap(i -> movieInfoRestClient.retrieveMovieInfo(movieId));
+
+        //then
+        StepVerifier.create(movieInfoFlux)
+                .expectNextCount(10)
+                .verifyComplete();
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(movieId))
+                .expectNextMatches(movieInfo -> movieInfo.getName().equals("Batman Begins"))
+                .verifyComplete();
+        verify(1, getRequestedFor(urlEqualTo("/v1/movieInfo/" + movieId)));
+        assertEquals(10, movieInfoCache.synchronous().stats().hitCount() - hitsBefore);
+    }
+
+    @Test
+    void retrieveMovieInfo_notFoundIsCached() {
+        //given
+        var movieId = "missing";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withStatus(404)));
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(movieId))
+                    .expectErrorMatches(e -> e instanceof MoviesInfoClientException
+                            && ((MoviesInfoClientException) e).getStatusCode() == 404
+                            && e.getMessage().equals("There is no Movie Available for Id: " + movieId))
+                    .verify();
+        }
+
+        //then
+        verify(1, getRequestedFor(urlEqualTo("/v1/movieInfo/" + movieId)));
+    }
+
+    @Test
+    void retrieveMovieInfo_serverErrorIsNotCached() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("MovieInfo Service Unavailable")));
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(movieId))
+                    .expectError(MoviesInfoServerException.class)
+                    .verify();
+        }
+
+        //then
+        verify(2, getRequestedFor(urlEqualTo("/v1/movieInfo/" + movieId)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.reactivespring.config;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@AutoConfigureMetrics
+@TestPropertySource(properties = {
+        "restClient.movieInfoUrl=http://localhost:${wiremock.server.port}/v1/movieInfo",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.movieInfoCache.enabled=false",
+})
+public class MetricsIntgTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.reset();
+    }
+
+    @Test
+    void prometheusScrapeHasRouteDownstreamPoolAndCacheMetrics() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk();
+
+        //when
+        var scrape = webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        //then
+        assertNotNull(scrape);
+        assertHasSample(scrape, "http_server_requests_seconds_bucket{", "uri=\"/v1/movies/{id}\"", "status=\"200\"", "le=\"0.1\"");
+        assertHasSample(scrape, "http_server_requests_seconds{", "uri=\"/v1/movies/{id}\"", "quantile=\"0.99\"");
+        assertHasSample(scrape, "http_client_requests_seconds_count{", "downstream=\"movieInfo\"", "uri=\"/v1/movieInfo/{id}\"", "status=\"200\"");
+        assertHasSample(scrape, "http_client_requests_seconds_count{", "downstream=\"reviews\"", "uri=\"/v1/reviews?movieInfoId={movieInfoId}\"");
+        assertHasSample(scrape, "reactor_netty_connection_provider_total_connections{", "name=\"movieInfo\"");
+        assertHasSample(scrape, "reactor_netty_connection_provider_total_connections{", "name=\"reviews\"");
+        assertHasSample(scrape, "cache_gets_total{", "cache=\"movieInfo\"", "result=\"hit\"");
+        assertHasSample(scrape, "cache_gets_total{", "cache=\"movieInfo\"", "result=\"miss\"");
+        assertHasSample(scrape, "cache_evictions_total{", "cache=\"movieInfo\"");
+    }
+
+    private void assertHasSample(String scrape, String metric, String... labels) {
+        assertTrue(Arrays.stream(scrape.split("\n"))
+                        .anyMatch(line -> line.startsWith(metric) && Arrays.stream(labels).allMatch(line::contains)),
+                () -> metric + " with " + String.join(", ", labels) + " not found in scrape");
+    }
+}
@@ -0,0 +1,91 @@
+package com.reactivespring.config;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "restClient.movieInfoUrl=http://localhost:${wiremock.server.port}/v1/movieInfo",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.movieInfoCache.enabled=true",
+        "spring.zipkin.enabled=false",
+})
+public class TracingIntgTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.reset();
+    }
+
+    @Test
+    void traceparentIsPropagatedToBothDownstreams() {
+        //given
+        var movieId = "traced";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        //when
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-01")
+                .exchange()
+                .expectStatus().isOk();
+
+        //then same trace, but each call is its own client span, the movie info one loaded through the cache
+        var childTraceparent = matching("00-" + TRACE_ID + "-(?!" + PARENT_SPAN_ID + ")[0-9a-f]{16}-01");
+        verify(1, getRequestedFor(urlEqualTo("/v1/movieInfo/" + movieId))
+                .withHeader("traceparent", childTraceparent));
+        verify(1, getRequestedFor(urlPathEqualTo("/v1/reviews"))
+                .withHeader("traceparent", childTraceparent));
+    }
+
+    @Test
+    void unsampledTraceparentIsPropagatedUnsampled() {
+        //given
+        var movieId = "unsampled";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        //when
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-00")
+                .exchange()
+                .expectStatus().isOk();
+
+        //then
+        verify(1, getRequestedFor(urlPathEqualTo("/v1/reviews"))
+                .withHeader("traceparent", matching("00-" + TRACE_ID + "-[0-9a-f]{16}-00")));
+    }
+}
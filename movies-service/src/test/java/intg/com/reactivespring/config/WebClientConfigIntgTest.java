@@ -0,0 +1,82 @@
+package com.reactivespring.config;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.client.MovieInfoRestClient;
+import com.reactivespring.client.ReviewsRestClient;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "restClient.movieInfoUrl=http://localhost:${wiremock.server.port}/v1/movieInfo",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.movieInfoCache.enabled=false",
+        "restClient.movieInfo.responseTimeout=5s",
+        "restClient.reviews.responseTimeout=300ms",
+        "restClient.movieInfo.resilience.timeout=10s",
+        "restClient.reviews.maxConnections=4",
+})
+public class WebClientConfigIntgTest {
+
+    @Autowired
+    RestClientProperties restClientProperties;
+
+    @Autowired
+    MovieInfoRestClient movieInfoRestClient;
+
+    @Autowired
+    ReviewsRestClient reviewsRestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.reset();
+    }
+
+    @Test
+    void downstreamPropertiesAreBoundPerService() {
+        assertEquals(Duration.ofMillis(300), restClientProperties.getReviews().getResponseTimeout());
+        assertEquals(4, restClientProperties.getReviews().getMaxConnections());
+        assertEquals(Duration.ofSeconds(5), restClientProperties.getMovieInfo().getResponseTimeout());
+        assertEquals(100, restClientProperties.getMovieInfo().getMaxConnections());
+    }
+
+    @Test
+    void responseTimeoutIsAppliedPerDownstream() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")
+                        .withFixedDelay(1000)));
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")
+                        .withFixedDelay(1000)));
+
+        //then
+        StepVerifier.create(movieInfoRestClient.retrieveMovieInfo(movieId))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(reviewsRestClient.retrieveReviews(movieId))
+                .expectErrorMatches(e -> e instanceof WebClientRequestException
+                        && e.getCause() instanceof ReadTimeoutException)
+                .verify();
+    }
+}
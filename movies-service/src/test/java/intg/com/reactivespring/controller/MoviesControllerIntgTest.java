@@ -1,28 +1,44 @@
 package com.reactivespring.controller;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.client.DownstreamResilience;
 import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.Review;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureWebClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.DigestUtils;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
 @AutoConfigureWireMock(port = 8084) // automaticaly spins up a httpserver in port 8084
 @TestPropertySource(properties = {
-        "restClient.moviesInfoUrl=http://localhost:8084/v1/movieinfos",
+        "restClient.movieInfoUrl=http://localhost:8084/v1/movieInfo",
         "restClient.reviewsUrl=http://localhost:8084/v1/reviews",
+        "restClient.movieInfoCache.enabled=false",
+        "aggregation.reviews.latencyBudget=1500ms",
+        "aggregation.retrieveMovieById=PARALLEL",
 })
 @AutoConfigureWebClient
 public class MoviesControllerIntgTest {
@@ -30,10 +46,17 @@ public class MoviesControllerIntgTest {
     @Autowired
     WebTestClient webTestClient;
 
+    @Autowired
+    Cache<String, List<Review>> reviewsFallbackCache;
+
+    @Autowired
+    List<DownstreamResilience> downstreamResiliences;
 
     @BeforeEach
     void setUp() {
         WireMock.reset();
+        reviewsFallbackCache.invalidateAll();
+        downstreamResiliences.forEach(downstreamResilience -> downstreamResilience.getCircuitBreaker().reset());
     }
 
     @Test
@@ -66,4 +89,275 @@ public class MoviesControllerIntgTest {
                 );
         //then
     }
+
+    @Test
+    void retrieveMovieById_notModified() {
+        //given
+        var movieId = "abc";
+        stubMovieWithDelay(movieId, 0);
+        var eTag = webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Movie.class)
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(eTag);
+
+        //when
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+        //then
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void retrieveMovieById_eTagIsOverTheBodySent() {
+        //given
+        var movieId = "abc";
+        stubMovieWithDelay(movieId, 0);
+
+        //when
+        var result = webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult();
+
+        //then
+        assertEquals("\"" + DigestUtils.md5DigestAsHex(result.getResponseBody()) + "\"", result.getResponseHeaders().getETag());
+    }
+
+    @Test
+    void retrieveMovieById_parallelLatency() {
+        //given
+        var movieId = "abc";
+        var downstreamDelayMs = 1000;
+        //warm up the connections so that only the downstream delays are measured
+        stubMovieWithDelay(movieId, 0);
+        retrieveMovieWithTwoReviews(movieId);
+        stubMovieWithDelay(movieId, downstreamDelayMs);
+
+        //when
+        var start = System.nanoTime();
+        retrieveMovieWithTwoReviews(movieId);
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        //then
+        //sequential aggregation takes at least the sum of both delays (see MoviesControllerSequentialIntgTest)
+        assertTrue(elapsed.toMillis() < downstreamDelayMs * 3L / 2, "took " + elapsed.toMillis() + "ms");
+    }
+
+    private void stubMovieWithDelay(String movieId, int delayMs) {
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")
+                        .withFixedDelay(delayMs)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")
+                        .withFixedDelay(delayMs)));
+    }
+
+    private void retrieveMovieWithTwoReviews(String movieId) {
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assertEquals(2, Objects.requireNonNull(movie).getReviewList().size());
+                    assertFalse(movie.isPartial());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_notFoundWinsOverReviewsFailure() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withStatus(404)
+                        .withFixedDelay(500)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("Reviews Service Unavailable")));
+
+        //when
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class)
+                .isEqualTo("There is no Movie Available for Id: " + movieId);
+    }
+
+    @Test
+    void retrieveMoviesByIds() {
+        //given
+        for (var movieId : List.of("abc", "def")) {
+            stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                    .willReturn(aResponse()
+                            .withHeader("Content-Type", "application/json")
+                            .withBodyFile("movieinfo.json")));
+        }
+        stubFor(get(urlEqualTo("/v1/movieInfo/missing"))
+                .willReturn(aResponse()
+                        .withStatus(404)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoIds", equalTo("abc,missing,def"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews-batch.json")));
+
+        //when
+        webTestClient.post()
+                .uri("/v1/movies/batch")
+                .bodyValue(List.of("abc", "missing", "def", "abc"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Movie.class)
+                .consumeWith(movieListEntityExchangeResult -> {
+                    var movies = Objects.requireNonNull(movieListEntityExchangeResult.getResponseBody());
+                    assertEquals(2, movies.size());
+                    assertEquals(2, movies.get(0).getReviewList().size());
+                    assertEquals(1, movies.get(1).getReviewList().size());
+                });
+
+        //then
+        verify(1, getRequestedFor(urlPathEqualTo("/v1/reviews")));
+        verify(3, getRequestedFor(urlPathMatching("/v1/movieInfo/.*")));
+    }
+
+    @Test
+    void retrieveMoviesByIds_maxBatchSize() {
+        //given: 200 ObjectId-sized ids, ~5KB joined, more than reviews-service accepts in one request line
+        var movieIds = new ArrayList<>(List.of("abc", "def"));
+        IntStream.range(0, 198).forEach(i -> movieIds.add(String.format("%024x", i)));
+        stubFor(get(urlPathMatching("/v1/movieInfo/.*"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[]")));
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoIds", matching("abc,def,.*"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews-batch.json")));
+
+        //when
+        webTestClient.post()
+                .uri("/v1/movies/batch")
+                .bodyValue(movieIds)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Movie.class)
+                .consumeWith(movieListEntityExchangeResult -> {
+                    var movies = Objects.requireNonNull(movieListEntityExchangeResult.getResponseBody());
+                    assertEquals(200, movies.size());
+                    assertTrue(movies.stream().noneMatch(Movie::isPartial));
+                    assertEquals(2, movies.get(0).getReviewList().size());
+                    assertEquals(1, movies.get(1).getReviewList().size());
+                });
+
+        //then: the reviews are fetched 50 ids at a time
+        verify(4, getRequestedFor(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoIds", matching("[^,]+(,[^,]+){49}")));
+        verify(4, getRequestedFor(urlPathEqualTo("/v1/reviews")));
+    }
+
+    @Test
+    void retrieveMoviesByIds_overMaxBatchSize() {
+        var movieIds = IntStream.range(0, 201)
+                .mapToObj(i -> String.format("%024x", i))
+                .collect(Collectors.toList());
+
+        webTestClient.post()
+                .uri("/v1/movies/batch")
+                .bodyValue(movieIds)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("At most 200 movie ids per batch, got 201");
+
+        verify(0, getRequestedFor(urlPathMatching("/v1/.*")));
+    }
+
+    @Test
+    void retrieveMovieById_reviewsDown() {
+        //given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("Reviews Service Unavailable")));
+
+        //when
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = Objects.requireNonNull(movieEntityExchangeResult.getResponseBody());
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertTrue(movie.getReviewList().isEmpty());
+                    assertTrue(movie.isPartial());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_reviewsSlowServesLastGoodReviews() {
+        //given
+        var movieId = "abc";
+        stubMovieWithDelay(movieId, 0);
+        retrieveMovieWithTwoReviews(movieId);
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[]")
+                        .withFixedDelay(2500)));
+
+        //when
+        var start = System.nanoTime();
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = Objects.requireNonNull(movieEntityExchangeResult.getResponseBody());
+                    assertEquals(2, movie.getReviewList().size());
+                    assertTrue(movie.isPartial());
+                });
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        //then
+        assertTrue(elapsed.toMillis() < 2500, "took " + elapsed.toMillis() + "ms");
+    }
 }
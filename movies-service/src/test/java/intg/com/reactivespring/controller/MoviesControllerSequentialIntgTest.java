@@ -0,0 +1,92 @@
+package com.reactivespring.controller;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.domain.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureWebClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//GET /v1/movies/{id} with aggregation.retrieveMovieById=SEQUENTIAL; MoviesControllerIntgTest covers PARALLEL
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "restClient.movieInfoUrl=http://localhost:${wiremock.server.port}/v1/movieInfo",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.movieInfoCache.enabled=false",
+        "aggregation.reviews.latencyBudget=1500ms",
+        "aggregation.retrieveMovieById=SEQUENTIAL",
+})
+@AutoConfigureWebClient
+public class MoviesControllerSequentialIntgTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.reset();
+    }
+
+    @Test
+    void retrieveMovieById_sequentialLatency() {
+        //given
+        var movieId = "abc";
+        var downstreamDelayMs = 1000;
+        //warm up the connections so that only the downstream delays are measured
+        stubMovieWithDelay(movieId, 0);
+        retrieveMovieWithTwoReviews(movieId);
+        stubMovieWithDelay(movieId, downstreamDelayMs);
+
+        //when
+        var start = System.nanoTime();
+        retrieveMovieWithTwoReviews(movieId);
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        //then
+        //reviews are only requested once the movie info has arrived
+        assertTrue(elapsed.toMillis() >= 2L * downstreamDelayMs, "took " + elapsed.toMillis() + "ms");
+    }
+
+    private void stubMovieWithDelay(String movieId, int delayMs) {
+        stubFor(get(urlEqualTo("/v1/movieInfo/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")
+                        .withFixedDelay(delayMs)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", equalTo(movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")
+                        .withFixedDelay(delayMs)));
+    }
+
+    private void retrieveMovieWithTwoReviews(String movieId) {
+        webTestClient.get()
+                .uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assertEquals(2, Objects.requireNonNull(movie).getReviewList().size());
+                    assertFalse(movie.isPartial());
+                });
+    }
+}
@@ -0,0 +1,39 @@
+package com.reactivespring.support;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public final class Batches {
+
+    private Batches() {
+    }
+
+    //Cuts a batch when it is full or on a flush tick. Unlike bufferTimeout, whose timer emits a batch whether or not one
+    //was requested (an OverflowException once slow writes leave no demand), batches are only cut on demand:
+    //a tick that comes while no batch is wanted is dropped, and the source is read no faster than batches are consumed
+    public static <T> Flux<List<T>> onDemand(Flux<T> source, int maxSize, Duration maxWait) {
+        return Flux.defer(() -> {
+            var batchSize = new int[1];
+            return source.publish(shared -> Flux.merge(1,
+                            shared.map(Optional::of),
+                            Flux.interval(maxWait)
+                                    .onBackpressureDrop()
+                                    .map(tick -> Optional.<T>empty())
+                                    .takeUntilOther(shared.ignoreElements().onErrorResume(e -> Mono.empty()))))
+                    .bufferUntil(item -> {
+                        if (item.isEmpty() || ++batchSize[0] == maxSize) {
+                            batchSize[0] = 0;
+                            return true;
+                        }
+                        return false;
+                    })
+                    .map(batch -> batch.stream().flatMap(Optional::stream).collect(Collectors.toList()))
+                    .filter(batch -> !batch.isEmpty());
+        });
+    }
+}
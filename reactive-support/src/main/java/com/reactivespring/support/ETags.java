@@ -0,0 +1,68 @@
+package com.reactivespring.support;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+
+public final class ETags {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ETags() {
+    }
+
+    //md5 over the values, each one length-prefixed so that no two different lists of values hash alike
+    public static String hash(Object... values) {
+        var md5 = md5();
+        update(md5, Arrays.asList(values));
+        return hex(md5.digest());
+    }
+
+    //the opaque tag of an If-Match value, or null for a weak one, which never matches in a conditional update
+    public static String parseStrong(String header) {
+        var value = header.trim();
+        if (value.startsWith("W/")) {
+            return null;
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static void update(MessageDigest md5, Object value) {
+        if (value instanceof Collection) {
+            var values = (Collection<?>) value;
+            md5.update(("[" + values.size() + ":").getBytes(StandardCharsets.UTF_8));
+            values.forEach(element -> update(md5, element));
+            return;
+        }
+        if (value == null) {
+            md5.update("~".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        var bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        md5.update((bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+        md5.update(bytes);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            //every JRE has to provide MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        var hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
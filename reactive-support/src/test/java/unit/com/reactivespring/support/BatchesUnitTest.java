@@ -0,0 +1,55 @@
+package com.reactivespring.support;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchesUnitTest {
+
+    @Test
+    void cutsFullBatchesAndFlushesTheRest() {
+        StepVerifier.create(Batches.onDemand(Flux.range(0, 10), 4, Duration.ofSeconds(10)))
+                .expectNext(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7), List.of(8, 9))
+                .verifyComplete();
+    }
+
+    @Test
+    void cutsPartialBatchOnTick() {
+        var source = Flux.concat(Flux.just(1, 2), Mono.delay(Duration.ofMillis(500)).thenReturn(3));
+
+        StepVerifier.create(Batches.onDemand(source, 100, Duration.ofMillis(50)))
+                .expectNext(List.of(1, 2), List.of(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void completesWhenElementsTrickleThenBurstWhileConsumerIsSlow() {
+        //bufferTimeout fails this with OverflowException: its ticks keep cutting batches the slow consumer never asked for
+        var trickle = Flux.range(0, 40).delayElements(Duration.ofMillis(10));
+        var burst = Flux.range(40, 100);
+
+        var batches = Batches.onDemand(Flux.concat(trickle, burst), 4, Duration.ofMillis(5))
+                .concatMap(batch -> Mono.delay(Duration.ofMillis(50)).thenReturn(batch))
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(140, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 4));
+    }
+
+    @Test
+    void propagatesSourceError() {
+        var source = Flux.concat(Flux.just(1, 2), Flux.<Integer>error(new IllegalStateException("boom")));
+
+        StepVerifier.create(Batches.onDemand(source, 4, Duration.ofSeconds(10)))
+                .expectErrorMessage("boom")
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,37 @@
+package com.reactivespring.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ETagsUnitTest {
+
+    @Test
+    void hashIsStableForEqualValues() {
+        assertEquals(ETags.hash("Batman Begins", 2005, List.of("Christian Bale", "Michael Cane")),
+                ETags.hash("Batman Begins", 2005, List.of("Christian Bale", "Michael Cane")));
+    }
+
+    @Test
+    void hashTellsApartValuesThatConcatenateAlike() {
+        assertNotEquals(ETags.hash("ab", "c"), ETags.hash("a", "bc"));
+        assertNotEquals(ETags.hash(List.of("a, b")), ETags.hash(List.of("a", "b")));
+        assertNotEquals(ETags.hash((Object) null), ETags.hash("null"));
+        assertNotEquals(ETags.hash(List.of("a"), "b"), ETags.hash(List.of("a", "b")));
+    }
+
+    @Test
+    void parseStrongStripsQuotes() {
+        assertEquals("abc", ETags.parseStrong(" \"abc\" "));
+        assertEquals("abc", ETags.parseStrong("abc"));
+    }
+
+    @Test
+    void parseStrongRejectsWeak() {
+        assertNull(ETags.parseStrong("W/\"abc\""));
+    }
+}